@@ -0,0 +1,24 @@
+package com.ctse.microservice.inventoryService.config;
+
+import com.ctse.microservice.inventoryService.dto.SkuTrafficReport;
+import com.ctse.microservice.inventoryService.service.SkuTrafficMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/skutraffic}: the most requested and most rejected SKUs over
+ * the sliding window.
+ */
+@Component
+@Endpoint(id = "skutraffic")
+@RequiredArgsConstructor
+public class SkuTrafficEndpoint {
+    private final SkuTrafficMonitor skuTrafficMonitor;
+
+    @ReadOperation
+    public SkuTrafficReport skuTraffic() {
+        return skuTrafficMonitor.getReport();
+    }
+}
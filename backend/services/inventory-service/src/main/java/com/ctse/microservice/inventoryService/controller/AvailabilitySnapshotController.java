@@ -0,0 +1,27 @@
+package com.ctse.microservice.inventoryService.controller;
+
+import com.ctse.microservice.inventoryService.service.AvailabilitySnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/inventory/availability")
+@RequiredArgsConstructor
+public class AvailabilitySnapshotController {
+    private final AvailabilitySnapshotService availabilitySnapshotService;
+
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getSnapshot() {
+        AvailabilitySnapshotService.EncodedSnapshot snapshot = availabilitySnapshotService.getSnapshot();
+        return ResponseEntity.ok()
+                .eTag(Long.toString(snapshot.version()))
+                .body(snapshot.bytes());
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] getChanges(@RequestParam long since) {
+        return availabilitySnapshotService.getChangesSince(since);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ctse.microservice.inventoryService.controller;
+
+import com.ctse.microservice.inventoryService.dto.HoldRequest;
+import com.ctse.microservice.inventoryService.dto.HoldResponse;
+import com.ctse.microservice.inventoryService.service.ReservationHoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/inventory/holds")
+@RequiredArgsConstructor
+public class HoldController {
+    private final ReservationHoldService reservationHoldService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.OK)
+    public HoldResponse placeHold(@RequestBody HoldRequest request,
+                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return reservationHoldService.placeHold(request, idempotencyKey);
+    }
+
+    @PostMapping("/commit")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void commitHolds(@RequestBody List<UUID> holdIds) {
+        reservationHoldService.commitHolds(holdIds);
+    }
+
+    @PostMapping("/{holdId}/commit")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void commitHold(@PathVariable UUID holdId) {
+        reservationHoldService.commitHold(holdId);
+    }
+
+    @DeleteMapping("/{holdId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseHold(@PathVariable UUID holdId) {
+        reservationHoldService.releaseHold(holdId);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ctse.microservice.inventoryService.controller;
+
+import com.ctse.microservice.inventoryService.service.HotSkuLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory/hot")
+@RequiredArgsConstructor
+public class HotSkuController {
+    private final HotSkuLedger hotSkuLedger;
+
+    @GetMapping
+    public Map<String, Long> getHotSkus() {
+        return hotSkuLedger.getAvailable();
+    }
+
+    @PutMapping("/{skuCode}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void enableHotSku(@PathVariable String skuCode) {
+        hotSkuLedger.enable(skuCode);
+    }
+
+    @DeleteMapping("/{skuCode}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void disableHotSku(@PathVariable String skuCode) {
+        hotSkuLedger.disable(skuCode);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ctse.microservice.inventoryService.controller;
+
+import com.ctse.microservice.inventoryService.service.InventoryBucketService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory/buckets")
+@RequiredArgsConstructor
+public class InventoryBucketController {
+    private final InventoryBucketService inventoryBucketService;
+
+    @GetMapping
+    public Map<String, Integer> getSplitSkus() {
+        return inventoryBucketService.getBucketCounts();
+    }
+
+    @PutMapping("/{skuCode}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void splitSku(@PathVariable String skuCode, @RequestParam Integer buckets) {
+        inventoryBucketService.split(skuCode, buckets);
+    }
+
+    @DeleteMapping("/{skuCode}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void mergeSku(@PathVariable String skuCode) {
+        inventoryBucketService.merge(skuCode);
+    }
+}
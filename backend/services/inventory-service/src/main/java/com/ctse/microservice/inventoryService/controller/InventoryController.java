@@ -1,29 +1,88 @@
 package com.ctse.microservice.inventoryService.controller;
 
+import com.ctse.microservice.inventoryService.dto.AvailabilityResponse;
+import com.ctse.microservice.inventoryService.dto.BatchReservationResponse;
+import com.ctse.microservice.inventoryService.dto.BulkImportResponse;
+import com.ctse.microservice.inventoryService.dto.ReservationItem;
+import com.ctse.microservice.inventoryService.dto.ReservationOutcome;
 import com.ctse.microservice.inventoryService.model.Inventory;
 import com.ctse.microservice.inventoryService.service.InventoryService;
+import com.ctse.microservice.inventoryService.util.StockLevelReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/inventory")
 @RequiredArgsConstructor
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final ObjectMapper objectMapper;
 
+    @Value("${inventory.availability.max-age:2s}")
+    private Duration availabilityMaxAge;
+
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> getAvailability(@RequestParam String skuCode, @RequestParam Integer quantity) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(availabilityMaxAge))
+                .body(inventoryService.getAvailability(skuCode, quantity));
+    }
+
+    /**
+     * Read-only stock check, kept for existing callers of the old endpoint.
+     */
     @GetMapping("/check")
+    public ResponseEntity<Boolean> isInStock(@RequestParam String skuCode, @RequestParam Integer quantity) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(availabilityMaxAge))
+                .body(inventoryService.getAvailability(skuCode, quantity).inStock());
+    }
+
+    @PostMapping("/reserve")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationOutcome reserve(@RequestBody ReservationItem item,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        boolean reserved = inventoryService.reserve(item.skuCode(), item.quantity(), idempotencyKey);
+        return new ReservationOutcome(item.skuCode(), item.quantity(), reserved);
+    }
+
+    @PostMapping("/reserve/batch")
     @ResponseStatus(HttpStatus.OK)
-    public boolean isInStock(@RequestParam  String skuCode,@RequestParam Integer quantity) {
-        return inventoryService.isInStock(skuCode, quantity);
+    public BatchReservationResponse reserveBatch(@RequestBody List<ReservationItem> items) {
+        return inventoryService.reserveBatch(items);
     }
 
     @GetMapping("/all")
-    public List<Inventory> getAllInventory() {
-        return inventoryService.getAllInventory();
+    public List<Inventory> getAllInventory(@RequestParam(defaultValue = "0") Long afterId,
+                                           @RequestParam(defaultValue = "100") Integer limit) {
+        return inventoryService.getInventoryPage(afterId, limit);
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllInventory() {
+        return outputStream -> inventoryService.streamAllInventory(inventory -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(inventory));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     @PostMapping
@@ -32,6 +91,18 @@ public class InventoryController {
         return inventoryService.addInventory(inventory);
     }
 
+    @PostMapping(value = "/bulk", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportResponse importStock(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                          InputStream body) {
+        return inventoryService.importStock(StockLevelReader.open(body, contentType, objectMapper), false);
+    }
+
+    @PostMapping(value = "/bulk/adjust", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportResponse adjustStock(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                          InputStream body) {
+        return inventoryService.importStock(StockLevelReader.open(body, contentType, objectMapper), true);
+    }
+
     @PutMapping("/{id}")
     public Inventory updateQuantity(@PathVariable Long id, @RequestParam Integer quantity) {
         return inventoryService.updateQuantity(id, quantity);
@@ -0,0 +1,32 @@
+package com.ctse.microservice.inventoryService.controller;
+
+import com.ctse.microservice.inventoryService.service.InventoryMovementLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory/movements")
+@RequiredArgsConstructor
+public class MovementLedgerController {
+    private final InventoryMovementLedger movementLedger;
+
+    @GetMapping
+    public Map<String, Long> getTrackedSkus() {
+        return movementLedger.getAvailable();
+    }
+
+    @PutMapping("/{skuCode}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void enableMovementLedger(@PathVariable String skuCode) {
+        movementLedger.enable(skuCode);
+    }
+
+    @DeleteMapping("/{skuCode}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void disableMovementLedger(@PathVariable String skuCode) {
+        movementLedger.disable(skuCode);
+    }
+}
@@ -0,0 +1,4 @@
+package com.ctse.microservice.inventoryService.dto;
+
+public record AvailabilityResponse(String skuCode, Integer quantity, boolean inStock) {
+}
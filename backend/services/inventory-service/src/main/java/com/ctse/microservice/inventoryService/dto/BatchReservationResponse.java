@@ -0,0 +1,6 @@
+package com.ctse.microservice.inventoryService.dto;
+
+import java.util.List;
+
+public record BatchReservationResponse(boolean reserved, List<ReservationOutcome> outcomes) {
+}
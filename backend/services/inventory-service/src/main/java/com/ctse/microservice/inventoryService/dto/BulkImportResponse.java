@@ -0,0 +1,4 @@
+package com.ctse.microservice.inventoryService.dto;
+
+public record BulkImportResponse(long rows, long skipped, long elapsedMillis) {
+}
@@ -0,0 +1,4 @@
+package com.ctse.microservice.inventoryService.dto;
+
+public record HoldRequest(String skuCode, Integer quantity, Long ttlSeconds) {
+}
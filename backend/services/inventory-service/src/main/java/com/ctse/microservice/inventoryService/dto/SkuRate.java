@@ -0,0 +1,4 @@
+package com.ctse.microservice.inventoryService.dto;
+
+public record SkuRate(String skuCode, long count, double perSecond) {
+}
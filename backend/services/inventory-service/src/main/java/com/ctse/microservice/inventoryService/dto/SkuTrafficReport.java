@@ -0,0 +1,7 @@
+package com.ctse.microservice.inventoryService.dto;
+
+import java.time.Duration;
+import java.util.List;
+
+public record SkuTrafficReport(Duration window, List<SkuRate> requests, List<SkuRate> rejections) {
+}
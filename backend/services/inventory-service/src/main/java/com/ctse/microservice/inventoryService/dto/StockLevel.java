@@ -0,0 +1,4 @@
+package com.ctse.microservice.inventoryService.dto;
+
+public record StockLevel(String skuCode, Integer quantity) {
+}
@@ -0,0 +1,11 @@
+package com.ctse.microservice.inventoryService.exception;
+
+import java.time.LocalDateTime;
+
+public record ErrorResponse(
+        int status,
+        String error,
+        String message,
+        LocalDateTime timestamp
+) {
+}
@@ -0,0 +1,13 @@
+package com.ctse.microservice.inventoryService.exception;
+
+import java.util.UUID;
+
+public class HoldNotFoundException extends RuntimeException {
+    public HoldNotFoundException(UUID holdId) {
+        super("Hold '" + holdId + "' does not exist or has expired.");
+    }
+
+    public HoldNotFoundException(String idempotencyKey) {
+        super("Hold placed with idempotency key '" + idempotencyKey + "' was released or has expired.");
+    }
+}
@@ -0,0 +1,11 @@
+package com.ctse.microservice.inventoryService.exception;
+
+/**
+ * A request that does not fit how the SKU's stock is kept right now, e.g.
+ * a SKU split into buckets or served by one of the ledgers.
+ */
+public class SkuModeConflictException extends RuntimeException {
+    public SkuModeConflictException(String message) {
+        super(message);
+    }
+}
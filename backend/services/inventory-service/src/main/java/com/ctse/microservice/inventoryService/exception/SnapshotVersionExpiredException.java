@@ -0,0 +1,7 @@
+package com.ctse.microservice.inventoryService.exception;
+
+public class SnapshotVersionExpiredException extends RuntimeException {
+    public SnapshotVersionExpiredException(long version) {
+        super("Changes since version " + version + " are no longer available, download a new snapshot.");
+    }
+}
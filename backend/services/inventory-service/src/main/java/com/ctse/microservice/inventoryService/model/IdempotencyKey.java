@@ -0,0 +1,27 @@
+package com.ctse.microservice.inventoryService.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Result of a reservation made under an idempotency key. Only the MD5 of the
+ * client's key is kept, so every row has the same small size whatever the key.
+ */
+@Entity
+@Table(name = "t_inventory_idempotency")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyKey {
+    @Id
+    private UUID keyHash;
+    private Boolean inStock;
+    private Instant expiresAt;
+}
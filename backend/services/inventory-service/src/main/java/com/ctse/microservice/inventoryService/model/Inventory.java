@@ -5,9 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.NaturalId;
 
 @Entity
-@Table(name = "t_inventory")
+@Table(name = "t_inventory", uniqueConstraints = @UniqueConstraint(name = "uk_inventory_sku_code", columnNames = "sku_code"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -16,6 +17,8 @@ public class Inventory {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    @NaturalId
+    @Column(nullable = false)
     private String skuCode;
     private Integer quantity;
 }
@@ -0,0 +1,37 @@
+package com.ctse.microservice.inventoryService.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One slice of a split SKU's stock. The SKU's available quantity is its
+ * t_inventory row plus all of its buckets.
+ */
+@Entity
+@Table(name = "t_inventory_bucket")
+@IdClass(InventoryBucket.Key.class)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryBucket {
+    @Id
+    private String skuCode;
+    @Id
+    private Integer bucket;
+    private Integer quantity;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String skuCode;
+        private Integer bucket;
+    }
+}
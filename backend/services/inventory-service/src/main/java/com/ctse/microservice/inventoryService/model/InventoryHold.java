@@ -0,0 +1,30 @@
+package com.ctse.microservice.inventoryService.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "t_inventory_hold")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryHold {
+    @Id
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.TIME)
+    private UUID holdId;
+    private String skuCode;
+    private Integer quantity;
+    private Instant expiresAt;
+    // Null until committed; committed holds are kept for a while so commits can be repeated
+    private Instant committedAt;
+    private UUID idempotencyKey;
+}
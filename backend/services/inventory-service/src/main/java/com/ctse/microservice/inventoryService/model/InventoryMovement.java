@@ -0,0 +1,30 @@
+package com.ctse.microservice.inventoryService.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One stock change of a SKU in movement ledger mode: negative for reservations,
+ * positive for restocks. Rows are never deleted; the compactor only flags the
+ * ones it has folded into t_inventory.
+ */
+@Entity
+@Table(name = "t_inventory_movement")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String skuCode;
+    private Integer quantity;
+    private Boolean compacted;
+    private Instant createdAt;
+}
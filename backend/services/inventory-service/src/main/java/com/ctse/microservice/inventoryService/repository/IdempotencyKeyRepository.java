@@ -0,0 +1,37 @@
+package com.ctse.microservice.inventoryService.repository;
+
+import com.ctse.microservice.inventoryService.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
+
+    /**
+     * Claims the key for the current transaction. A concurrent claim of the same
+     * key waits for this transaction to finish and then matches no row.
+     * @return 1 if the key was claimed, 0 if it was already used
+     */
+    @Modifying
+    @Query(value = "insert ignore into t_inventory_idempotency (key_hash, in_stock, expires_at) " +
+            "values (:keyHash, false, :expiresAt)", nativeQuery = true)
+    int claim(@Param("keyHash") UUID keyHash, @Param("expiresAt") Instant expiresAt);
+
+    @Query(value = "select in_stock from t_inventory_idempotency where key_hash = :keyHash for share", nativeQuery = true)
+    Optional<Boolean> findResult(@Param("keyHash") UUID keyHash);
+
+    @Modifying
+    @Query("update IdempotencyKey k set k.inStock = :inStock where k.keyHash = :keyHash")
+    int saveResult(@Param("keyHash") UUID keyHash, @Param("inStock") boolean inStock);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from t_inventory_idempotency where expires_at < :now limit :limit", nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
@@ -0,0 +1,66 @@
+package com.ctse.microservice.inventoryService.repository;
+
+import com.ctse.microservice.inventoryService.model.InventoryBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface InventoryBucketRepository extends JpaRepository<InventoryBucket, InventoryBucket.Key> {
+
+    interface BucketCount {
+        String getSkuCode();
+        long getBuckets();
+    }
+
+    interface BucketTotal {
+        String getSkuCode();
+        long getQuantity();
+    }
+
+    boolean existsBySkuCode(String skuCode);
+
+    long countBySkuCode(String skuCode);
+
+    @Query("select b.skuCode as skuCode, count(b) as buckets from InventoryBucket b group by b.skuCode")
+    List<BucketCount> countBuckets();
+
+    @Query("select b.skuCode as skuCode, sum(b.quantity) as quantity from InventoryBucket b group by b.skuCode")
+    List<BucketTotal> sumQuantities();
+
+    @Query("select coalesce(sum(b.quantity), 0) from InventoryBucket b where b.skuCode = :skuCode")
+    long sumQuantity(@Param("skuCode") String skuCode);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from InventoryBucket b where b.skuCode = :skuCode order by b.bucket")
+    List<InventoryBucket> findAllForUpdate(@Param("skuCode") String skuCode);
+
+    /**
+     * Same guarded update as {@link InventoryRepository#decrementStock(String, Integer)},
+     * on a single bucket.
+     */
+    @Transactional
+    @Modifying
+    @Query("update InventoryBucket b set b.quantity = b.quantity - :quantity " +
+            "where b.skuCode = :skuCode and b.bucket = :bucket and b.quantity >= :quantity")
+    int decrementBucket(@Param("skuCode") String skuCode, @Param("bucket") int bucket, @Param("quantity") int quantity);
+
+    /**
+     * Takes the quantity from the fullest bucket that still has enough of it.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE t_inventory_bucket SET quantity = quantity - :quantity " +
+            "WHERE sku_code = :skuCode AND quantity >= :quantity ORDER BY quantity DESC LIMIT 1", nativeQuery = true)
+    int decrementFullestBucket(@Param("skuCode") String skuCode, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying
+    @Query("delete from InventoryBucket b where b.skuCode = :skuCode")
+    int deleteAllBySkuCode(@Param("skuCode") String skuCode);
+}
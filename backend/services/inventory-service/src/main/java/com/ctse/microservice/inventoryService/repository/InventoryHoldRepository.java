@@ -0,0 +1,44 @@
+package com.ctse.microservice.inventoryService.repository;
+
+import com.ctse.microservice.inventoryService.model.InventoryHold;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface InventoryHoldRepository extends JpaRepository<InventoryHold, UUID> {
+
+    interface HoldExpiry {
+        UUID getHoldId();
+        Instant getExpiresAt();
+    }
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from InventoryHold h where h.holdId in :holdIds")
+    List<InventoryHold> findAllForUpdate(@Param("holdIds") Collection<UUID> holdIds);
+
+    Optional<InventoryHold> findByIdempotencyKey(UUID idempotencyKey);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select h.holdId as holdId, h.expiresAt as expiresAt from InventoryHold h where h.committedAt is null")
+    Stream<HoldExpiry> streamExpiries();
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from t_inventory_hold where committed_at < :before limit :limit", nativeQuery = true)
+    int deleteCommitted(@Param("before") Instant before, @Param("limit") int limit);
+}
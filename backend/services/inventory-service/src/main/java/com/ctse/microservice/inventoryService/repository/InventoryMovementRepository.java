@@ -0,0 +1,35 @@
+package com.ctse.microservice.inventoryService.repository;
+
+import com.ctse.microservice.inventoryService.model.InventoryMovement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    /**
+     * Appends a movement with a plain insert, which never waits on another
+     * reservation of the same SKU.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into t_inventory_movement (sku_code, quantity, compacted, created_at) " +
+            "values (:skuCode, :quantity, false, :createdAt)", nativeQuery = true)
+    int append(@Param("skuCode") String skuCode, @Param("quantity") int quantity, @Param("createdAt") Instant createdAt);
+
+    List<InventoryMovement> findByCompactedFalseOrderByIdAsc(Limit limit);
+
+    @Query("select coalesce(sum(m.quantity), 0) from InventoryMovement m where m.skuCode = :skuCode and m.compacted = false")
+    long sumUncompacted(@Param("skuCode") String skuCode);
+
+    @Modifying
+    @Query("update InventoryMovement m set m.compacted = true where m.id in :ids and m.compacted = false")
+    int markCompacted(@Param("ids") Collection<Long> ids);
+}
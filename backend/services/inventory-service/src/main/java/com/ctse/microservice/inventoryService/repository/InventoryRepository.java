@@ -1,12 +1,29 @@
 package com.ctse.microservice.inventoryService.repository;
 
 import com.ctse.microservice.inventoryService.model.Inventory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+public interface InventoryRepository extends JpaRepository<Inventory, Long>, InventoryRepositoryCustom {
     boolean existsBySkuCodeAndQuantityGreaterThanEqual(String skuCode, Integer quantity);
     Optional<Inventory> findBySkuCode(String skuCode);
+    List<Inventory> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Reserves stock with a single guarded update, so the check and the decrement
+     * happen under the same row lock.
+     * @return the number of rows updated, 1 if the stock was reserved and 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("update Inventory i set i.quantity = i.quantity - :quantity " +
+            "where i.skuCode = :skuCode and i.quantity >= :quantity")
+    int decrementStock(@Param("skuCode") String skuCode, @Param("quantity") Integer quantity);
 }
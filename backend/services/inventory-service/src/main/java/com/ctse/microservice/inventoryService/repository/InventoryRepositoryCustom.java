@@ -0,0 +1,60 @@
+package com.ctse.microservice.inventoryService.repository;
+
+import com.ctse.microservice.inventoryService.dto.StockLevel;
+import com.ctse.microservice.inventoryService.model.Inventory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Set-based stock operations that don't map onto derived or JPQL queries.
+ */
+public interface InventoryRepositoryCustom {
+
+    /**
+     * Loads an item through its natural key, the unique sku_code index.
+     */
+    Optional<Inventory> findByNaturalId(String skuCode);
+
+    /**
+     * Locks the rows of the given SKUs for the rest of the current transaction.
+     * @return the current quantity per SKU, unknown SKUs are left out
+     */
+    Map<String, Integer> lockQuantities(Collection<String> skuCodes);
+
+    /**
+     * Decrements every SKU by its quantity in a single statement.
+     * @return the number of rows updated
+     */
+    int decrementStock(Map<String, Integer> quantities);
+
+    /**
+     * Subtracts every SKU's quantity in a single statement, without any stock
+     * check. Negative quantities add stock back.
+     * @return the number of rows updated
+     */
+    int subtractStock(Map<String, Long> quantities);
+
+    /**
+     * Sets the quantity of every SKU, creating the missing ones, with multi-row
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE} statements.
+     */
+    void upsertStock(List<StockLevel> levels);
+
+    /**
+     * Adds every quantity, negative ones included, to the SKU's stock, which
+     * stops at zero. Missing SKUs are left out.
+     * @return the number of deltas applied, those of missing SKUs not counted
+     */
+    int adjustStock(List<StockLevel> deltas);
+
+    /**
+     * Reads every item through a forward-only cursor, handing rows to the consumer
+     * as they arrive instead of materialising the whole table.
+     * @param fetchSize the number of rows the driver fetches per round trip
+     */
+    void forEachInventory(int fetchSize, Consumer<Inventory> consumer);
+}
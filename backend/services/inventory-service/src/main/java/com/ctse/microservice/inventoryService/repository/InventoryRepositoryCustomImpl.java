@@ -0,0 +1,152 @@
+package com.ctse.microservice.inventoryService.repository;
+
+import com.ctse.microservice.inventoryService.dto.StockLevel;
+import com.ctse.microservice.inventoryService.model.Inventory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+class InventoryRepositoryCustomImpl implements InventoryRepositoryCustom {
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Inventory> findByNaturalId(String skuCode) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Inventory.class)
+                .loadOptional(skuCode);
+    }
+
+    @Override
+    public Map<String, Integer> lockQuantities(Collection<String> skuCodes) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (skuCodes.isEmpty()) {
+            return quantities;
+        }
+        jdbcTemplate.query(
+                "SELECT sku_code, quantity FROM t_inventory WHERE sku_code IN (:skuCodes) FOR UPDATE",
+                new MapSqlParameterSource("skuCodes", skuCodes),
+                rs -> {
+                    quantities.put(rs.getString("sku_code"), rs.getInt("quantity"));
+                });
+        return quantities;
+    }
+
+    @Override
+    public int decrementStock(Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("skuCodes", quantities.keySet());
+        String amount = amountBySku(quantities, params);
+        return jdbcTemplate.update(
+                "UPDATE t_inventory SET quantity = quantity - " + amount +
+                        " WHERE sku_code IN (:skuCodes) AND quantity >= " + amount,
+                params);
+    }
+
+    @Override
+    public int subtractStock(Map<String, Long> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("skuCodes", quantities.keySet());
+        return jdbcTemplate.update(
+                "UPDATE t_inventory SET quantity = quantity - " + amountBySku(quantities, params) +
+                        " WHERE sku_code IN (:skuCodes)",
+                params);
+    }
+
+    // CASE sku_code WHEN :sku0 THEN :qty0 ... END
+    private static String amountBySku(Map<String, ? extends Number> quantities, MapSqlParameterSource params) {
+        StringBuilder amount = new StringBuilder("CASE sku_code");
+        int i = 0;
+        for (Map.Entry<String, ? extends Number> entry : quantities.entrySet()) {
+            amount.append(" WHEN :sku").append(i).append(" THEN :qty").append(i);
+            params.addValue("sku" + i, entry.getKey());
+            params.addValue("qty" + i, entry.getValue());
+            i++;
+        }
+        return amount.append(" END").toString();
+    }
+
+    @Override
+    public void upsertStock(List<StockLevel> levels) {
+        insertOnDuplicateKey(levels, "quantity = new.quantity");
+    }
+
+    @Override
+    public int adjustStock(List<StockLevel> deltas) {
+        int adjusted = 0;
+        for (int from = 0; from < deltas.size(); from += ROWS_PER_STATEMENT) {
+            List<StockLevel> rows = deltas.subList(from, Math.min(deltas.size(), from + ROWS_PER_STATEMENT));
+            Map<String, Long> bySku = new HashMap<>();
+            rows.forEach(row -> bySku.merge(row.skuCode(), (long) row.quantity(), Long::sum));
+            MapSqlParameterSource params = new MapSqlParameterSource("skuCodes", bySku.keySet());
+            // Locked, so the rows counted below are the rows updated
+            Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT sku_code FROM t_inventory WHERE sku_code IN (:skuCodes) FOR UPDATE", params, String.class));
+            if (existing.isEmpty()) {
+                continue;
+            }
+            jdbcTemplate.update(
+                    "UPDATE t_inventory SET quantity = GREATEST(0, quantity + " + amountBySku(bySku, params) + ")" +
+                            " WHERE sku_code IN (:skuCodes)",
+                    params);
+            adjusted += (int) rows.stream().filter(row -> existing.contains(row.skuCode())).count();
+        }
+        return adjusted;
+    }
+
+    // INSERT ... VALUES (?, ?), (?, ?) ... AS new ON DUPLICATE KEY UPDATE ..., at most
+    // ROWS_PER_STATEMENT rows per statement to keep packets small
+    private void insertOnDuplicateKey(List<StockLevel> levels, String assignment) {
+        for (int from = 0; from < levels.size(); from += ROWS_PER_STATEMENT) {
+            List<StockLevel> rows = levels.subList(from, Math.min(levels.size(), from + ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder("INSERT INTO t_inventory (sku_code, quantity) VALUES ");
+            for (int i = 0; i < rows.size(); i++) {
+                sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+            }
+            sql.append(" AS new ON DUPLICATE KEY UPDATE ").append(assignment);
+            jdbcTemplate.getJdbcTemplate().update(sql.toString(), ps -> {
+                int index = 1;
+                for (StockLevel row : rows) {
+                    ps.setString(index++, row.skuCode());
+                    ps.setInt(index++, row.quantity());
+                }
+            });
+        }
+    }
+
+    @Override
+    public void forEachInventory(int fetchSize, Consumer<Inventory> consumer) {
+        jdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, sku_code, quantity FROM t_inventory ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(
+                new Inventory(rs.getLong("id"), rs.getString("sku_code"), rs.getObject("quantity", Integer.class))));
+    }
+}
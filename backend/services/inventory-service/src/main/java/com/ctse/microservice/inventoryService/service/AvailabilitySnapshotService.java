@@ -0,0 +1,186 @@
+package com.ctse.microservice.inventoryService.service;
+
+import com.ctse.microservice.inventoryService.exception.SnapshotVersionExpiredException;
+import com.ctse.microservice.inventoryService.repository.InventoryBucketRepository;
+import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import com.ctse.microservice.inventoryService.util.AvailabilityCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the available quantity of every SKU as sorted arrays and versions every
+ * change, so clients can download one compact snapshot and then poll for the
+ * changes since the version they hold.
+ * <p>
+ * The state is rebuilt from t_inventory, bucket totals and the in-memory ledgers on
+ * every refresh and diffed against the previous one. Versions start at the
+ * startup time in milliseconds and grow by one per refresh that changed
+ * something, so they keep increasing across restarts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilitySnapshotService {
+    private final InventoryRepository inventoryRepository;
+    private final InventoryBucketRepository bucketRepository;
+    private final HotSkuLedger hotSkuLedger;
+    private final InventoryMovementLedger movementLedger;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.listing.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${inventory.snapshot.history-size:720}")
+    private int historySize;
+
+    private record State(long version, String[] skuCodes, int[] quantities) {
+    }
+
+    private record Change(long version, String[] skuCodes, int[] quantities) {
+    }
+
+    private record SkuQuantity(String skuCode, int quantity) {
+    }
+
+    /**
+     * An encoded snapshot with the version it was encoded at.
+     */
+    public record EncodedSnapshot(long version, byte[] bytes) {
+    }
+
+    private volatile State state = new State(System.currentTimeMillis(), new String[0], new int[0]);
+    // Guarded by this
+    private final Deque<Change> history = new ArrayDeque<>();
+    private EncodedSnapshot encodedSnapshot;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("inventory.snapshot.skus", this, snapshot -> snapshot.state.skuCodes().length)
+                .description("SKUs in the availability snapshot")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.snapshot.refresh-interval:5s}")
+    public void refresh() {
+        State current = state;
+        State next = load(current.version() + 1);
+
+        List<String> changedSkus = new ArrayList<>();
+        List<Integer> changedQuantities = new ArrayList<>();
+        String[] before = current.skuCodes();
+        String[] after = next.skuCodes();
+        int i = 0;
+        int j = 0;
+        while (i < before.length || j < after.length) {
+            int cmp = i == before.length ? 1 : j == after.length ? -1 : before[i].compareTo(after[j]);
+            if (cmp < 0) {
+                changedSkus.add(before[i++]);
+                changedQuantities.add(AvailabilityCodec.REMOVED);
+            } else if (cmp > 0) {
+                changedSkus.add(after[j]);
+                changedQuantities.add(next.quantities()[j++]);
+            } else {
+                if (current.quantities()[i] != next.quantities()[j]) {
+                    changedSkus.add(after[j]);
+                    changedQuantities.add(next.quantities()[j]);
+                }
+                i++;
+                j++;
+            }
+        }
+        if (changedSkus.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            history.addLast(new Change(next.version(), changedSkus.toArray(String[]::new),
+                    changedQuantities.stream().mapToInt(Integer::intValue).toArray()));
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+            state = next;
+        }
+        log.debug("Availability snapshot moved to version {} with {} changed SKUs", next.version(), changedSkus.size());
+    }
+
+    /**
+     * @return the current snapshot, encoded once per version, with its version
+     * read from the same state, so it can serve as the ETag of the bytes
+     */
+    public synchronized EncodedSnapshot getSnapshot() {
+        State current = state;
+        if (encodedSnapshot == null || encodedSnapshot.version() != current.version()) {
+            encodedSnapshot = new EncodedSnapshot(current.version(),
+                    AvailabilityCodec.encodeSnapshot(current.version(), current.skuCodes(), current.quantities()));
+        }
+        return encodedSnapshot;
+    }
+
+    /**
+     * @return the latest quantity of every SKU that changed after the given version
+     * @throws SnapshotVersionExpiredException if the changes are no longer kept and
+     * the client has to download a new snapshot
+     */
+    public synchronized byte[] getChangesSince(long sinceVersion) {
+        long version = state.version();
+        if (sinceVersion == version) {
+            return AvailabilityCodec.encodeDelta(sinceVersion, version, new String[0], new int[0], 0);
+        }
+        if (sinceVersion > version || history.isEmpty() || history.getFirst().version() > sinceVersion + 1) {
+            throw new SnapshotVersionExpiredException(sinceVersion);
+        }
+
+        TreeMap<String, Integer> changes = new TreeMap<>();
+        for (Change change : history) {
+            if (change.version() > sinceVersion) {
+                for (int i = 0; i < change.skuCodes().length; i++) {
+                    changes.put(change.skuCodes()[i], change.quantities()[i]);
+                }
+            }
+        }
+        String[] skuCodes = changes.keySet().toArray(String[]::new);
+        int[] quantities = changes.values().stream().mapToInt(Integer::intValue).toArray();
+        return AvailabilityCodec.encodeDelta(sinceVersion, version, skuCodes, quantities, skuCodes.length);
+    }
+
+    private State load(long version) {
+        Map<String, Long> bucketTotals = new HashMap<>();
+        bucketRepository.sumQuantities().forEach(total -> bucketTotals.put(total.getSkuCode(), total.getQuantity()));
+        Map<String, Long> hotSkus = new HashMap<>(movementLedger.getAvailable());
+        hotSkus.putAll(hotSkuLedger.getAvailable());
+
+        List<SkuQuantity> rows = new ArrayList<>();
+        inventoryRepository.forEachInventory(fetchSize, inventory -> {
+            String skuCode = inventory.getSkuCode();
+            long quantity = inventory.getQuantity() == null ? 0 : inventory.getQuantity();
+            Long hot = hotSkus.get(skuCode);
+            quantity = hot != null ? hot : quantity + bucketTotals.getOrDefault(skuCode, 0L);
+            rows.add(new SkuQuantity(skuCode, (int) Math.max(0, Math.min(Integer.MAX_VALUE, quantity))));
+        });
+        // MySQL collations don't sort like String.compareTo, which the diff and the codec rely on
+        rows.sort(Comparator.comparing(SkuQuantity::skuCode));
+
+        String[] skuCodes = new String[rows.size()];
+        int[] quantities = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            skuCodes[i] = rows.get(i).skuCode();
+            quantities[i] = rows.get(i).quantity();
+        }
+        return new State(version, skuCodes, quantities);
+    }
+}
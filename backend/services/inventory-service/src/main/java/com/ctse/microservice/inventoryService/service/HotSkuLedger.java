@@ -0,0 +1,471 @@
+package com.ctse.microservice.inventoryService.service;
+
+import com.ctse.microservice.inventoryService.exception.SkuModeConflictException;
+import com.ctse.microservice.inventoryService.model.Inventory;
+import com.ctse.microservice.inventoryService.model.JournalCheckpoint;
+import com.ctse.microservice.inventoryService.repository.InventoryBucketRepository;
+import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import com.ctse.microservice.inventoryService.repository.JournalCheckpointRepository;
+import com.ctse.microservice.inventoryService.util.StockJournal;
+import com.ctse.microservice.inventoryService.util.StripedStockCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-memory stock ledger for hot SKUs. Reservations of a tracked SKU are taken
+ * from a {@link StripedStockCounter} and journaled locally; the accumulated
+ * deltas are written to t_inventory in periodic batches. On startup, journal
+ * segments that never reached the database are replayed.
+ * <p>
+ * The in-memory count is authoritative while a SKU is tracked, so the mode is
+ * meant for a single inventory-service instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotSkuLedger {
+
+    public enum Result { RESERVED, REJECTED, NOT_TRACKED }
+
+    private final InventoryRepository inventoryRepository;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final InventoryBucketRepository bucketRepository;
+    private final ObjectProvider<InventoryMovementLedger> movementLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.hot-sku.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.hot-sku.skus:}")
+    private List<String> initialSkus;
+
+    @Value("${inventory.hot-sku.stripes:16}")
+    private int stripes;
+
+    @Value("${inventory.hot-sku.journal-dir:./data/hot-sku-journal}")
+    private Path journalDir;
+
+    @Value("${inventory.hot-sku.journal-id:${spring.application.name}}")
+    private String journalId;
+
+    private final Map<String, HotSku> skus = new ConcurrentHashMap<>();
+    // Reservations share the read lock; only mode switches take the write lock. Flushes
+    // swap the pending deltas under the journal's monitor instead, see snapshot().
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong pendingDeltas = new AtomicLong();
+    private volatile long lastFlushMillis = System.currentTimeMillis();
+    private StockJournal journal;
+    private Timer flushTimer;
+
+    private record HotSku(StripedStockCounter available, AtomicLong pending) {
+    }
+
+    private record Snapshot(long segment, Map<String, Long> deltas, long records) {
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Gauge.builder("inventory.hot.sku.pending.deltas", pendingDeltas, AtomicLong::get)
+                .description("Journaled reservations not yet flushed to the database")
+                .register(meterRegistry);
+        Gauge.builder("inventory.hot.sku.flush.lag", this, HotSkuLedger::flushLagSeconds)
+                .description("Age of the oldest unflushed delta")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("inventory.hot.sku.flush")
+                .description("Time taken to write a batch of deltas to the database")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+
+        long checkpoint = checkpointRepository.findById(journalId)
+                .map(JournalCheckpoint::getSegment)
+                .orElse(0L);
+        SortedMap<Long, Map<String, Long>> segments = StockJournal.readSegments(journalDir);
+        for (Map.Entry<Long, Map<String, Long>> segment : segments.tailMap(checkpoint + 1).entrySet()) {
+            log.info("Replaying hot SKU journal segment {} for {} SKUs", segment.getKey(), segment.getValue().size());
+            applyDeltas(segment.getKey(), segment.getValue());
+        }
+        long lastSegment = segments.isEmpty() ? checkpoint : Math.max(checkpoint, segments.lastKey());
+        journal = new StockJournal(journalDir, lastSegment + 1);
+        journal.deleteUpTo(lastSegment);
+    }
+
+    /**
+     * Tracks the configured SKUs once every bean is up, since enabling checks the
+     * other stock modes. Until then they are served from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void enableInitialSkus() {
+        if (!enabled) {
+            return;
+        }
+        for (String skuCode : initialSkus) {
+            if (skuCode.isBlank()) {
+                continue;
+            }
+            try {
+                enable(skuCode.trim());
+            } catch (IllegalArgumentException | SkuModeConflictException e) {
+                log.warn("Cannot track hot SKU: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (journal != null) {
+            flush();
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isTracked(String skuCode) {
+        return skus.containsKey(skuCode);
+    }
+
+    /**
+     * Reserves from the in-memory count if the SKU is tracked, otherwise runs the
+     * fallback. The fallback runs under the ledger's read lock, so a SKU cannot
+     * switch modes halfway through a database reservation.
+     */
+    public boolean tryReserve(String skuCode, int quantity, BooleanSupplier untracked) {
+        if (!enabled) {
+            return untracked.getAsBoolean();
+        }
+        stateLock.readLock().lock();
+        try {
+            Result result = tryReserve(skuCode, quantity);
+            return result == Result.NOT_TRACKED ? untracked.getAsBoolean() : result == Result.RESERVED;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reserves from the in-memory count of a tracked SKU. Inside a transaction the
+     * units are given back if it rolls back.
+     */
+    public Result tryReserve(String skuCode, int quantity) {
+        if (!enabled) {
+            return Result.NOT_TRACKED;
+        }
+        stateLock.readLock().lock();
+        try {
+            HotSku sku = skus.get(skuCode);
+            if (sku == null) {
+                return Result.NOT_TRACKED;
+            }
+            if (!sku.available().tryReserve(quantity)) {
+                return Result.REJECTED;
+            }
+            try {
+                record(skuCode, sku, quantity);
+            } catch (UncheckedIOException e) {
+                sku.available().release(quantity);
+                throw e;
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_ROLLED_BACK) {
+                            release(skuCode, quantity);
+                        }
+                    }
+                });
+            }
+            return Result.RESERVED;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Puts units back into a tracked SKU.
+     * @return false if the SKU is not tracked
+     */
+    public boolean release(String skuCode, int quantity) {
+        if (!enabled) {
+            return false;
+        }
+        stateLock.readLock().lock();
+        try {
+            HotSku sku = skus.get(skuCode);
+            if (sku == null) {
+                return false;
+            }
+            record(skuCode, sku, -quantity);
+            sku.available().release(quantity);
+            return true;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Puts units back into a tracked SKU once the current transaction commits, or
+     * straight away outside of one. If the SKU has left the ledger by then, the
+     * fallback writes the units to the database instead.
+     * @return false if the SKU is not tracked and nothing was scheduled
+     */
+    public boolean releaseAfterCommit(String skuCode, int quantity, Runnable untracked) {
+        if (!enabled || !isTracked(skuCode)) {
+            return false;
+        }
+        Runnable release = () -> {
+            if (!release(skuCode, quantity)) {
+                untracked.run();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release.run();
+                }
+            });
+        } else {
+            release.run();
+        }
+        return true;
+    }
+
+    /**
+     * Runs the action while no SKU can enter or leave the ledger.
+     */
+    public <T> T whileModesFixed(Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        stateLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs an action that writes the SKU's row directly. A tracked SKU is flushed
+     * and detached first, then reloaded from the database afterwards.
+     */
+    public <T> T whileDetached(String skuCode, Supplier<T> action) {
+        if (!enabled || !isTracked(skuCode)) {
+            return action.get();
+        }
+        disable(skuCode);
+        try {
+            return action.get();
+        } finally {
+            if (inventoryRepository.findBySkuCode(skuCode).isPresent()) {
+                enable(skuCode);
+            }
+        }
+    }
+
+    /**
+     * Starts serving the SKU from memory, seeded with its current database quantity.
+     */
+    public void enable(String skuCode) {
+        if (!enabled) {
+            throw new SkuModeConflictException("Hot SKU mode is disabled, set inventory.hot-sku.enabled=true");
+        }
+        stateLock.writeLock().lock();
+        try {
+            if (skus.containsKey(skuCode)) {
+                return;
+            }
+            if (bucketRepository.existsBySkuCode(skuCode)) {
+                throw new SkuModeConflictException("SKU '" + skuCode + "' is split into buckets, merge it first");
+            }
+            if (movementLedger.getObject().isTracked(skuCode)) {
+                throw new SkuModeConflictException("SKU '" + skuCode + "' is served by the movement ledger");
+            }
+            Inventory inventory = inventoryRepository.findBySkuCode(skuCode)
+                    .orElseThrow(() -> new IllegalArgumentException("SKU '" + skuCode + "' not found in inventory"));
+            int quantity = inventory.getQuantity() == null ? 0 : inventory.getQuantity();
+            skus.put(skuCode, new HotSku(new StripedStockCounter(stripes, quantity), new AtomicLong()));
+            log.info("SKU {} moved to the hot SKU ledger with {} units", skuCode, quantity);
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the SKU's pending deltas and hands it back to the database.
+     */
+    public void disable(String skuCode) {
+        flushLock.lock();
+        try {
+            stateLock.writeLock().lock();
+            try {
+                if (!skus.containsKey(skuCode)) {
+                    return;
+                }
+                if (!write(snapshot())) {
+                    throw new IllegalStateException("Cannot flush pending deltas of SKU '" + skuCode + "'");
+                }
+                skus.remove(skuCode);
+                log.info("SKU {} moved back to the database", skuCode);
+            } finally {
+                stateLock.writeLock().unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return the in-memory available quantity of every tracked SKU
+     */
+    public Map<String, Long> getAvailable() {
+        Map<String, Long> available = new TreeMap<>();
+        skus.forEach((skuCode, sku) -> available.put(skuCode, sku.available().sum()));
+        return available;
+    }
+
+    /**
+     * @return the in-memory available quantity of the SKU, empty if it is not tracked
+     */
+    public OptionalLong getAvailable(String skuCode) {
+        HotSku sku = enabled ? skus.get(skuCode) : null;
+        return sku == null ? OptionalLong.empty() : OptionalLong.of(sku.available().sum());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot-sku.flush-interval:200ms}")
+    public void flush() {
+        if (journal == null) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            write(snapshot());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // The pending delta is counted in the journal's monitor, so it always lands in the
+    // snapshot of the segment that holds its record.
+    private void record(String skuCode, HotSku sku, long delta) {
+        boolean[] counted = new boolean[1];
+        try {
+            journal.append(skuCode, delta, () -> {
+                sku.pending().addAndGet(delta);
+                pendingDeltas.incrementAndGet();
+                counted[0] = true;
+            });
+        } catch (IOException e) {
+            if (counted[0]) {
+                // Not acknowledged, so the caller undoes it; the record may still be replayed
+                sku.pending().addAndGet(-delta);
+            }
+            throw new UncheckedIOException("Cannot journal stock delta for SKU " + skuCode, e);
+        }
+    }
+
+    // Takes the pending deltas and rotates the segment in one step under the journal's
+    // monitor, so reservations only wait for the swap, not for the database write.
+    private Snapshot snapshot() {
+        if (pendingDeltas.get() == 0) {
+            return new Snapshot(-1, Map.of(), 0);
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        long[] records = new long[1];
+        Runnable take = () -> {
+            records[0] = pendingDeltas.getAndSet(0);
+            skus.forEach((skuCode, sku) -> {
+                long delta = sku.pending().getAndSet(0);
+                if (delta != 0) {
+                    deltas.put(skuCode, delta);
+                }
+            });
+        };
+        try {
+            return new Snapshot(journal.rotate(take), deltas, records[0]);
+        } catch (IOException e) {
+            restore(deltas, records[0]);
+            throw new UncheckedIOException("Cannot rotate the hot SKU journal", e);
+        }
+    }
+
+    private boolean write(Snapshot snapshot) {
+        if (snapshot.records() == 0) {
+            lastFlushMillis = System.currentTimeMillis();
+            return true;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            applyDeltas(snapshot.segment(), snapshot.deltas());
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} hot SKU deltas, keeping them for the next flush", snapshot.records(), e);
+            restore(snapshot.deltas(), snapshot.records());
+            return false;
+        }
+        flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        lastFlushMillis = System.currentTimeMillis();
+        try {
+            journal.deleteUpTo(snapshot.segment());
+        } catch (IOException e) {
+            // Harmless: the checkpoint keeps flushed segments from being replayed
+            log.warn("Cannot delete flushed hot SKU journal segments", e);
+        }
+        return true;
+    }
+
+    private void restore(Map<String, Long> deltas, long records) {
+        deltas.forEach((skuCode, delta) -> skus.get(skuCode).pending().addAndGet(delta));
+        pendingDeltas.addAndGet(records);
+    }
+
+    private void applyDeltas(long segment, Map<String, Long> deltas) {
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryRepository.subtractStock(deltas);
+            checkpointRepository.save(new JournalCheckpoint(journalId, segment));
+        });
+    }
+
+    private double flushLagSeconds() {
+        return pendingDeltas.get() == 0 ? 0 : (System.currentTimeMillis() - lastFlushMillis) / 1000.0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ctse.microservice.inventoryService.service;
+
+import com.ctse.microservice.inventoryService.repository.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Remembers the result of reservations made under a client supplied key, so a
+ * retried request gets the original answer instead of reserving again. Keys are
+ * claimed in the caller's transaction: the claim, the stock update and the
+ * stored result commit or roll back together.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyService {
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Value("${inventory.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${inventory.idempotency.cleanup-batch-size:5000}")
+    private int cleanupBatchSize;
+
+    /**
+     * Claims the key, waiting for any in-flight request holding the same key.
+     * @return the stored result if the key was used before, empty if the caller
+     * now owns the key and must {@link #recordResult record} its result
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Boolean> claim(String key) {
+        UUID keyHash = hash(key);
+        if (idempotencyKeyRepository.claim(keyHash, Instant.now().plus(ttl)) == 1) {
+            return Optional.empty();
+        }
+        Optional<Boolean> result = idempotencyKeyRepository.findResult(keyHash);
+        if (result.isEmpty()) {
+            // Purged between the two statements, so nobody owns it any more
+            throw new IllegalStateException("Idempotency key expired while it was replayed, retry the request");
+        }
+        log.info("Replaying reservation result {} for idempotency key {}", result.get(), key);
+        return result;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordResult(String key, boolean inStock) {
+        idempotencyKeyRepository.saveResult(hash(key), inStock);
+    }
+
+    /**
+     * Deletes expired keys in small batches so the purge never holds locks on
+     * a large part of the table.
+     */
+    @Scheduled(fixedDelayString = "${inventory.idempotency.cleanup-interval:1m}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted;
+        int total = 0;
+        do {
+            deleted = idempotencyKeyRepository.deleteExpired(now, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            log.info("Purged {} expired idempotency keys", total);
+        }
+    }
+
+    /**
+     * @return the MD5 of the key, as stored instead of the key itself
+     */
+    public static UUID hash(String key) {
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,200 @@
+package com.ctse.microservice.inventoryService.service;
+
+import com.ctse.microservice.inventoryService.exception.SkuModeConflictException;
+import com.ctse.microservice.inventoryService.model.InventoryBucket;
+import com.ctse.microservice.inventoryService.repository.InventoryBucketRepository;
+import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the stock of a contended SKU across several t_inventory_bucket rows, so
+ * concurrent reservations update different rows instead of queueing on one row
+ * lock. A reservation tries a random bucket, then the fullest sibling, then the
+ * SKU's own row, and only locks every bucket when the quantity is spread across
+ * several of them.
+ * <p>
+ * Unlike the {@link HotSkuLedger} this keeps the database authoritative, so it
+ * works with any number of instances. Each instance only caches which SKUs are
+ * split; a reservation that misses on the SKU's row checks the buckets before
+ * giving up, so the cache can never cause an oversell.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryBucketService {
+    private static final int MAX_BUCKETS = 256;
+
+    private final InventoryBucketRepository bucketRepository;
+    private final InventoryRepository inventoryRepository;
+    private final HotSkuLedger hotSkuLedger;
+    private final InventoryMovementLedger movementLedger;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Integer> bucketCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${inventory.buckets.refresh-interval:10s}")
+    public void refreshBucketCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        bucketRepository.countBuckets().forEach(count -> counts.put(count.getSkuCode(), (int) count.getBuckets()));
+        bucketCounts.keySet().retainAll(counts.keySet());
+        bucketCounts.putAll(counts);
+    }
+
+    public boolean isSplit(String skuCode) {
+        return bucketCounts.containsKey(skuCode);
+    }
+
+    /**
+     * Unlike {@link #isSplit}, looks the SKU up in the database when this instance
+     * does not know it as split, so a split made by another instance since the
+     * last refresh is seen.
+     * @return the number of buckets of the SKU, 0 if it is not split
+     */
+    public int countBuckets(String skuCode) {
+        Integer buckets = bucketCounts.get(skuCode);
+        if (buckets != null) {
+            return buckets;
+        }
+        int counted = (int) bucketRepository.countBySkuCode(skuCode);
+        if (counted > 0) {
+            bucketCounts.put(skuCode, counted);
+        }
+        return counted;
+    }
+
+    /**
+     * @return the number of buckets of every split SKU
+     */
+    public Map<String, Integer> getBucketCounts() {
+        return new TreeMap<>(bucketCounts);
+    }
+
+    /**
+     * Reserves from the SKU's buckets if it is split, otherwise from its row.
+     * @return false if there is not enough stock or the SKU is unknown
+     */
+    public boolean reserve(String skuCode, int quantity) {
+        Integer buckets = bucketCounts.get(skuCode);
+        if (buckets == null) {
+            if (inventoryRepository.decrementStock(skuCode, quantity) == 1) {
+                return true;
+            }
+            // Another instance may have split the SKU since the last refresh
+            buckets = countBuckets(skuCode);
+            if (buckets == 0) {
+                return false;
+            }
+        }
+
+        int preferred = ThreadLocalRandom.current().nextInt(buckets);
+        return bucketRepository.decrementBucket(skuCode, preferred, quantity) == 1
+                || bucketRepository.decrementFullestBucket(skuCode, quantity) == 1
+                || inventoryRepository.decrementStock(skuCode, quantity) == 1
+                || gather(skuCode, quantity);
+    }
+
+    /**
+     * @return the SKU's row quantity plus all of its buckets
+     */
+    public long getAvailable(String skuCode) {
+        long rowQuantity = inventoryRepository.findBySkuCode(skuCode)
+                .map(inventory -> inventory.getQuantity() == null ? 0L : inventory.getQuantity())
+                .orElse(0L);
+        return rowQuantity + bucketRepository.sumQuantity(skuCode);
+    }
+
+    /**
+     * Moves the SKU's stock from its row into the given number of buckets.
+     */
+    public void split(String skuCode, int buckets) {
+        if (buckets < 2 || buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Bucket count must be between 2 and " + MAX_BUCKETS);
+        }
+        if (hotSkuLedger.isTracked(skuCode)) {
+            throw new SkuModeConflictException("SKU '" + skuCode + "' is served by the hot SKU ledger");
+        }
+        if (movementLedger.isTracked(skuCode)) {
+            throw new SkuModeConflictException("SKU '" + skuCode + "' is served by the movement ledger");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Integer quantity = inventoryRepository.lockQuantities(List.of(skuCode)).get(skuCode);
+            if (quantity == null) {
+                throw new IllegalArgumentException("SKU '" + skuCode + "' not found in inventory");
+            }
+            if (bucketRepository.existsBySkuCode(skuCode)) {
+                throw new SkuModeConflictException("SKU '" + skuCode + "' is already split");
+            }
+            List<InventoryBucket> slices = new ArrayList<>(buckets);
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                slices.add(new InventoryBucket(skuCode, bucket, quantity / buckets + (bucket < quantity % buckets ? 1 : 0)));
+            }
+            bucketRepository.saveAll(slices);
+            inventoryRepository.subtractStock(Map.of(skuCode, (long) quantity));
+        });
+        bucketCounts.put(skuCode, buckets);
+        log.info("SKU {} split into {} buckets", skuCode, buckets);
+    }
+
+    /**
+     * Moves the stock of every bucket back into the SKU's row. Merging a SKU that
+     * is not split does nothing.
+     */
+    public void merge(String skuCode) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<InventoryBucket> slices = bucketRepository.findAllForUpdate(skuCode);
+            if (slices.isEmpty()) {
+                return;
+            }
+            long quantity = slices.stream().mapToLong(InventoryBucket::getQuantity).sum();
+            bucketRepository.deleteAllInBatch(slices);
+            inventoryRepository.subtractStock(Map.of(skuCode, -quantity));
+        });
+        bucketCounts.remove(skuCode);
+        log.info("SKU {} merged back into a single row", skuCode);
+    }
+
+    /**
+     * Drops the buckets of a deleted SKU together with their stock.
+     */
+    public void delete(String skuCode) {
+        bucketRepository.deleteAllBySkuCode(skuCode);
+        bucketCounts.remove(skuCode);
+    }
+
+    // Buckets are always locked before the row, in the same order as reserve().
+    private boolean gather(String skuCode, int quantity) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<InventoryBucket> slices = bucketRepository.findAllForUpdate(skuCode);
+            int rowQuantity = inventoryRepository.lockQuantities(List.of(skuCode)).getOrDefault(skuCode, 0);
+            long available = rowQuantity + slices.stream().mapToLong(InventoryBucket::getQuantity).sum();
+            if (available < quantity) {
+                return false;
+            }
+            int remaining = quantity;
+            for (InventoryBucket slice : slices) {
+                int taken = Math.min(remaining, slice.getQuantity());
+                slice.setQuantity(slice.getQuantity() - taken);
+                remaining -= taken;
+            }
+            bucketRepository.saveAll(slices);
+            if (remaining > 0) {
+                inventoryRepository.subtractStock(Map.of(skuCode, (long) remaining));
+            }
+            return true;
+        }));
+    }
+}
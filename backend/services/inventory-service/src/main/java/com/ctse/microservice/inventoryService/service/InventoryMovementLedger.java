@@ -0,0 +1,350 @@
+package com.ctse.microservice.inventoryService.service;
+
+import com.ctse.microservice.inventoryService.exception.SkuModeConflictException;
+import com.ctse.microservice.inventoryService.model.Inventory;
+import com.ctse.microservice.inventoryService.model.InventoryMovement;
+import com.ctse.microservice.inventoryService.repository.InventoryBucketRepository;
+import com.ctse.microservice.inventoryService.repository.InventoryMovementRepository;
+import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Movement ledger mode: reservations and restocks of a tracked SKU are appended
+ * to t_inventory_movement instead of updating its t_inventory row, so they never
+ * queue on a row lock. A SKU's stock is its row plus its uncompacted movements;
+ * a running sum of it is kept in memory to accept or reject reservations, and a
+ * background compactor folds the movements into the rows.
+ * <p>
+ * Movements are flagged as compacted rather than tracked by an id watermark,
+ * because auto-increment ids can commit out of order. Like the
+ * {@link HotSkuLedger}, the running sum is authoritative while a SKU is tracked,
+ * so the mode is meant for a single inventory-service instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryMovementLedger {
+
+    public enum Result { RESERVED, REJECTED, NOT_TRACKED }
+
+    private final InventoryMovementRepository movementRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryBucketRepository bucketRepository;
+    private final HotSkuLedger hotSkuLedger;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.movements.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.movements.skus:}")
+    private List<String> initialSkus;
+
+    @Value("${inventory.movements.compaction-batch-size:10000}")
+    private int compactionBatchSize;
+
+    private final Map<String, AtomicLong> available = new ConcurrentHashMap<>();
+    // Reservations share the read lock; SKUs enter and leave the ledger under the write lock
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private TransactionTemplate loadTemplate;
+    private TransactionTemplate compactionTemplate;
+    private Counter compactedMovements;
+    private Timer compactionTimer;
+
+    @PostConstruct
+    void start() {
+        // The SKU's row and its uncompacted movements must come from one snapshot
+        loadTemplate = new TransactionTemplate(transactionManager);
+        loadTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        loadTemplate.setReadOnly(true);
+        // No gap locks, so compaction never blocks concurrent appends
+        compactionTemplate = new TransactionTemplate(transactionManager);
+        compactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        Gauge.builder("inventory.movements.tracked.skus", available, Map::size)
+                .description("SKUs served by the movement ledger")
+                .register(meterRegistry);
+        compactedMovements = Counter.builder("inventory.movements.compacted")
+                .description("Movements folded into t_inventory")
+                .register(meterRegistry);
+        compactionTimer = Timer.builder("inventory.movements.compaction")
+                .description("Time taken to fold a batch of movements into t_inventory")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+        for (String skuCode : initialSkus) {
+            if (skuCode.isBlank()) {
+                continue;
+            }
+            try {
+                enable(skuCode.trim());
+            } catch (IllegalArgumentException | SkuModeConflictException e) {
+                log.warn("Cannot track SKU in the movement ledger: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isTracked(String skuCode) {
+        return available.containsKey(skuCode);
+    }
+
+    /**
+     * Reserves through the ledger if the SKU is tracked, otherwise runs the
+     * fallback under the ledger's read lock.
+     */
+    public boolean tryReserve(String skuCode, int quantity, BooleanSupplier untracked) {
+        if (!enabled) {
+            return untracked.getAsBoolean();
+        }
+        stateLock.readLock().lock();
+        try {
+            Result result = tryReserve(skuCode, quantity);
+            return result == Result.NOT_TRACKED ? untracked.getAsBoolean() : result == Result.RESERVED;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the quantity from the running sum and appends the movement. Inside a
+     * transaction the units are given back if it rolls back.
+     */
+    public Result tryReserve(String skuCode, int quantity) {
+        if (!enabled) {
+            return Result.NOT_TRACKED;
+        }
+        stateLock.readLock().lock();
+        try {
+            AtomicLong sku = available.get(skuCode);
+            if (sku == null) {
+                return Result.NOT_TRACKED;
+            }
+            long current;
+            do {
+                current = sku.get();
+                if (current < quantity) {
+                    return Result.REJECTED;
+                }
+            } while (!sku.compareAndSet(current, current - quantity));
+
+            try {
+                movementRepository.append(skuCode, -quantity, Instant.now());
+            } catch (RuntimeException e) {
+                sku.addAndGet(quantity);
+                throw e;
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            sku.addAndGet(quantity);
+                        }
+                    }
+                });
+            }
+            return Result.RESERVED;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a restock of a tracked SKU. The units become available once the
+     * current transaction commits, or straight away outside of one.
+     * @return false if the SKU is not tracked
+     */
+    public boolean release(String skuCode, int quantity) {
+        if (!enabled) {
+            return false;
+        }
+        stateLock.readLock().lock();
+        try {
+            AtomicLong sku = available.get(skuCode);
+            if (sku == null) {
+                return false;
+            }
+            movementRepository.append(skuCode, quantity, Instant.now());
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        sku.addAndGet(quantity);
+                    }
+                });
+            } else {
+                sku.addAndGet(quantity);
+            }
+            return true;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the action while no SKU can enter or leave the ledger.
+     */
+    public <T> T whileModesFixed(Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        stateLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs an action that writes the SKU's row directly. A tracked SKU is
+     * compacted and detached first, then reloaded afterwards.
+     */
+    public <T> T whileDetached(String skuCode, Supplier<T> action) {
+        if (!enabled || !isTracked(skuCode)) {
+            return action.get();
+        }
+        disable(skuCode);
+        try {
+            return action.get();
+        } finally {
+            if (inventoryRepository.findBySkuCode(skuCode).isPresent()) {
+                enable(skuCode);
+            }
+        }
+    }
+
+    /**
+     * Starts appending the SKU's stock changes, seeded with its row plus any
+     * movements not compacted yet.
+     */
+    public void enable(String skuCode) {
+        if (!enabled) {
+            throw new SkuModeConflictException("Movement ledger mode is disabled, set inventory.movements.enabled=true");
+        }
+        if (hotSkuLedger.isTracked(skuCode)) {
+            throw new SkuModeConflictException("SKU '" + skuCode + "' is served by the hot SKU ledger");
+        }
+        stateLock.writeLock().lock();
+        try {
+            if (available.containsKey(skuCode)) {
+                return;
+            }
+            if (bucketRepository.existsBySkuCode(skuCode)) {
+                throw new SkuModeConflictException("SKU '" + skuCode + "' is split into buckets, merge it first");
+            }
+            Long quantity = loadTemplate.execute(status -> {
+                Inventory inventory = inventoryRepository.findBySkuCode(skuCode)
+                        .orElseThrow(() -> new IllegalArgumentException("SKU '" + skuCode + "' not found in inventory"));
+                long rowQuantity = inventory.getQuantity() == null ? 0 : inventory.getQuantity();
+                return rowQuantity + movementRepository.sumUncompacted(skuCode);
+            });
+            available.put(skuCode, new AtomicLong(quantity == null ? 0 : quantity));
+            log.info("SKU {} moved to the movement ledger with {} units", skuCode, quantity);
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Folds every movement into t_inventory and hands the SKU back to the database.
+     */
+    public void disable(String skuCode) {
+        stateLock.writeLock().lock();
+        try {
+            if (!available.containsKey(skuCode)) {
+                return;
+            }
+            compact();
+            available.remove(skuCode);
+            log.info("SKU {} moved back to the database", skuCode);
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the running available quantity of the SKU, null if it is not tracked
+     */
+    public Long getAvailable(String skuCode) {
+        AtomicLong quantity = available.get(skuCode);
+        return quantity == null ? null : quantity.get();
+    }
+
+    /**
+     * @return the running available quantity of every tracked SKU
+     */
+    public Map<String, Long> getAvailable() {
+        Map<String, Long> quantities = new TreeMap<>();
+        available.forEach((skuCode, quantity) -> quantities.put(skuCode, quantity.get()));
+        return quantities;
+    }
+
+    /**
+     * Folds uncompacted movements into t_inventory, in batches of
+     * {@code inventory.movements.compaction-batch-size}. Each batch adds the
+     * movements to the rows and flags them in one transaction, so a SKU's row
+     * plus its uncompacted movements never changes.
+     */
+    @Scheduled(fixedDelayString = "${inventory.movements.compaction-interval:1s}")
+    public void compact() {
+        compactionLock.lock();
+        try {
+            Integer compacted;
+            do {
+                compacted = compactionTimer.record(() -> compactionTemplate.execute(status -> compactBatch()));
+                compactedMovements.increment(compacted == null ? 0 : compacted);
+            } while (compacted != null && compacted == compactionBatchSize);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private int compactBatch() {
+        List<InventoryMovement> movements = movementRepository.findByCompactedFalseOrderByIdAsc(Limit.of(compactionBatchSize));
+        if (movements.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        movements.forEach(movement -> deltas.merge(movement.getSkuCode(), (long) movement.getQuantity(), Long::sum));
+        List<Long> ids = movements.stream().map(InventoryMovement::getId).toList();
+        // Another compactor got there first if not every movement is still uncompacted
+        if (movementRepository.markCompacted(ids) != ids.size()) {
+            throw new IllegalStateException("Movements were compacted concurrently");
+        }
+        // subtractStock subtracts, and movements are signed stock changes
+        deltas.replaceAll((skuCode, delta) -> -delta);
+        inventoryRepository.subtractStock(deltas);
+        return movements.size();
+    }
+}
@@ -1,74 +1,553 @@
 package com.ctse.microservice.inventoryService.service;
 
+import com.ctse.microservice.inventoryService.dto.AvailabilityResponse;
+import com.ctse.microservice.inventoryService.dto.BatchReservationResponse;
+import com.ctse.microservice.inventoryService.dto.BulkImportResponse;
+import com.ctse.microservice.inventoryService.dto.ReservationItem;
+import com.ctse.microservice.inventoryService.dto.ReservationOutcome;
+import com.ctse.microservice.inventoryService.dto.StockLevel;
+import com.ctse.microservice.inventoryService.exception.SkuModeConflictException;
 import com.ctse.microservice.inventoryService.model.Inventory;
 import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import com.ctse.microservice.inventoryService.util.FlatCombiner;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class InventoryService {
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final InventoryRepository inventoryRepository;
+    private final HotSkuLedger hotSkuLedger;
+    private final InventoryMovementLedger movementLedger;
+    private final InventoryBucketService inventoryBucketService;
+    private final IdempotencyKeyService idempotencyKeyService;
+    private final SkuTrafficMonitor skuTrafficMonitor;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.listing.fetch-size:500}")
+    private int listingFetchSize;
+
+    @Value("${inventory.bulk.chunk-size:5000}")
+    private int bulkChunkSize;
+
+    @Value("${inventory.sku-cache.maximum-size:10000}")
+    private long skuCacheMaximumSize;
+
+    @Value("${inventory.sku-cache.ttl:30s}")
+    private Duration skuCacheTtl;
+
+    @Value("${inventory.combining.enabled:true}")
+    private boolean combiningEnabled;
+
+    @Value("${inventory.combining.window:200us}")
+    private Duration combiningWindow;
+
+    @Value("${inventory.combining.max-batch-size:128}")
+    private int combiningMaxBatchSize;
+
+    private Cache<String, Inventory> skuCache;
+    private FlatCombiner<String, CombinedReservation, Boolean> reservationCombiner;
+
+    private record CombinedReservation(int quantity, String idempotencyKey) {
+    }
+
+    @PostConstruct
+    void start() {
+        skuCache = Caffeine.newBuilder()
+                .maximumSize(skuCacheMaximumSize)
+                .expireAfterWrite(skuCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, skuCache, "inventoryBySku");
+        if (combiningEnabled) {
+            reservationCombiner = new FlatCombiner<>(combiningWindow, combiningMaxBatchSize, this::applyCombined);
+        }
+    }
+
+
+    /**
+     * Tells whether the quantity can currently be reserved, without reserving it.
+     * Hot SKUs are answered from memory.
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityResponse getAvailability(String skuCode, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        OptionalLong hotAvailable = hotSkuLedger.getAvailable(skuCode);
+        Long movementAvailable = movementLedger.getAvailable(skuCode);
+        boolean inStock;
+        if (hotAvailable.isPresent()) {
+            inStock = hotAvailable.getAsLong() >= quantity;
+        } else if (movementAvailable != null) {
+            inStock = movementAvailable >= quantity;
+        } else if (inventoryBucketService.isSplit(skuCode)) {
+            inStock = inventoryBucketService.getAvailable(skuCode) >= quantity;
+        } else {
+            inStock = inventoryRepository.existsBySkuCodeAndQuantityGreaterThanEqual(skuCode, quantity);
+        }
+        return new AvailabilityResponse(skuCode, quantity, inStock);
+    }
 
+    public boolean reserve(String skuCode, Integer quantity) {
+        return reserve(skuCode, quantity, null);
+    }
 
-    public boolean isInStock(String skuCode, Integer quantity) {
-        log.info("Checking stock for SKU: {}, requested quantity: {}\n", skuCode, quantity);
+    /**
+     * Same as {@link #reserve(String, Integer)}, but a request repeated with the
+     * same idempotency key gets the first result back without reserving again.
+     * <p>
+     * Concurrent reservations of a SKU kept in t_inventory are combined: one
+     * caller applies the whole group with a single guarded update, see
+     * {@link #applyCombined}.
+     */
+    public boolean reserve(String skuCode, Integer quantity, String idempotencyKey) {
+        log.info("Reserving stock for SKU: {}, requested quantity: {}\n", skuCode, quantity);
 
-        if (quantity <= 0) {
+        if (quantity == null || quantity <= 0) {
             log.warn("Invalid quantity: {}. Quantity must be greater than 0.\n", quantity);
             return false;
         }
 
-        Optional<Inventory> inventoryOptional = inventoryRepository.findBySkuCode(skuCode);
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey;
+        boolean reserved;
+        if (isCombinable(skuCode)) {
+            reserved = reservationCombiner.submit(skuCode, new CombinedReservation(quantity, key));
+        } else if (key == null) {
+            reserved = reserveStock(skuCode, quantity);
+        } else {
+            reserved = Boolean.TRUE.equals(transactionTemplate.execute(status -> idempotencyKeyService.claim(key)
+                    .orElseGet(() -> {
+                        boolean inStock = reserveStock(skuCode, quantity);
+                        idempotencyKeyService.recordResult(key, inStock);
+                        return inStock;
+                    })));
+        }
 
-        if (inventoryOptional.isPresent()) {
-            Inventory inventory = inventoryOptional.get();
-            int availableQty = inventory.getQuantity();
-            log.info("Current stock for {} is {}\n", skuCode, availableQty);
+        if (reserved) {
+            log.info("Stock reserved. SKU: {}, quantity: {}\n", skuCode, quantity);
+        } else {
+            log.warn("Not enough stock or unknown SKU '{}'. Requested: {}\n", skuCode, quantity);
+        }
+        return reserved;
+    }
 
-            if (availableQty >= quantity) {
-                inventory.setQuantity(availableQty - quantity);
-                inventoryRepository.save(inventory);
-                log.info("Stock updated. New quantity for {}: {}\n", skuCode, inventory.getQuantity());
-                return true;
-            } else {
-                log.warn("Not enough stock. Requested: {}, Available: {}\n", quantity, availableQty);
-                return false;
+    // Only plain t_inventory rows are combined, and never inside a caller's
+    // transaction, which the combiner's own transaction could not join
+    private boolean isCombinable(String skuCode) {
+        return reservationCombiner != null
+                && !TransactionSynchronizationManager.isActualTransactionActive()
+                && isCombinableMode(skuCode);
+    }
+
+    private List<Boolean> applyCombined(String skuCode, List<CombinedReservation> requests) {
+        return transactionTemplate.execute(status -> whileModesFixed(() -> applyCombinedLocked(skuCode, requests)));
+    }
+
+    /**
+     * Applies a group of reservations of one SKU in one transaction. Their
+     * idempotency keys are claimed first; if the row holds enough for all of the
+     * others, one guarded update takes their total. Otherwise the row is locked and
+     * the reservations are served in arrival order, as if they had run one by one.
+     */
+    private List<Boolean> applyCombinedLocked(String skuCode, List<CombinedReservation> requests) {
+        Boolean[] results = new Boolean[requests.size()];
+        Map<String, Integer> firstByKey = new HashMap<>();
+        List<Integer> toReserve = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String key = requests.get(i).idempotencyKey();
+            if (key == null) {
+                toReserve.add(i);
+            } else if (firstByKey.putIfAbsent(key, i) == null) {
+                Optional<Boolean> replayed = idempotencyKeyService.claim(key);
+                if (replayed.isPresent()) {
+                    results[i] = replayed.get();
+                } else {
+                    toReserve.add(i);
+                }
             }
-        } else {
-            log.warn("SKU '{}' not found in inventory.\n", skuCode);
+        }
+
+        // Nothing is written when every request replays an earlier result. A SKU that
+        // changed mode while the requests were queued, or that another instance split,
+        // is served request by request
+        if (!toReserve.isEmpty()
+                && (!isCombinableMode(skuCode) || !reserveCombined(skuCode, requests, toReserve, results))) {
+            toReserve.forEach(i -> results[i] = reserveStock(skuCode, requests.get(i).quantity()));
+        }
+
+        firstByKey.forEach((key, first) -> {
+            if (toReserve.contains(first)) {
+                idempotencyKeyService.recordResult(key, results[first]);
+            }
+        });
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] == null) {
+                results[i] = results[firstByKey.get(requests.get(i).idempotencyKey())];
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Takes the total of the requests with one guarded update, or serves them in
+     * arrival order from the locked row when it holds less.
+     * @return false, having reserved nothing, when the row falls short because
+     *         the SKU was split since this instance last refreshed its bucket counts
+     */
+    private boolean reserveCombined(String skuCode, List<CombinedReservation> requests, List<Integer> toReserve,
+                                    Boolean[] results) {
+        long total = toReserve.stream().mapToLong(i -> requests.get(i).quantity()).sum();
+        if (total <= Integer.MAX_VALUE && inventoryRepository.decrementStock(skuCode, (int) total) == 1) {
+            toReserve.forEach(i -> results[i] = true);
+        } else if (inventoryBucketService.countBuckets(skuCode) > 0) {
             return false;
+        } else {
+            Integer available = inventoryRepository.lockQuantities(List.of(skuCode)).get(skuCode);
+            long left = available == null ? 0 : available;
+            long taken = 0;
+            for (int i : toReserve) {
+                int quantity = requests.get(i).quantity();
+                results[i] = left >= quantity;
+                if (results[i]) {
+                    left -= quantity;
+                    taken += quantity;
+                }
+            }
+            // The row is locked, so the guarded update must match
+            if (taken > 0 && inventoryRepository.decrementStock(skuCode, (int) taken) != 1) {
+                throw new IllegalStateException("Expected to reserve " + taken + " units of SKU " + skuCode);
+            }
+        }
+        for (int i : toReserve) {
+            skuTrafficMonitor.recordRequest(skuCode);
+            if (!results[i]) {
+                skuTrafficMonitor.recordRejection(skuCode);
+            }
+        }
+        evictSkus(List.of(skuCode));
+        return true;
+    }
+
+    private boolean isCombinableMode(String skuCode) {
+        return !hotSkuLedger.isTracked(skuCode)
+                && !movementLedger.isTracked(skuCode)
+                && !inventoryBucketService.isSplit(skuCode);
+    }
+
+
+    /**
+     * Takes the quantity out of the SKU's available stock, from memory for hot
+     * SKUs, as an appended movement for SKUs in the movement ledger, from its
+     * buckets for split SKUs and from t_inventory otherwise.
+     * @return false if there is not enough stock or the SKU is unknown
+     */
+    public boolean reserveStock(String skuCode, int quantity) {
+        // Every database path is a guarded update that only matches when enough
+        // stock is left, so concurrent callers can never take the quantity below zero.
+        boolean reserved = hotSkuLedger.tryReserve(skuCode, quantity, () -> movementLedger.tryReserve(skuCode, quantity,
+                () -> inventoryBucketService.reserve(skuCode, quantity)));
+        skuTrafficMonitor.recordRequest(skuCode);
+        if (reserved) {
+            evictSkus(List.of(skuCode));
+        } else {
+            skuTrafficMonitor.recordRejection(skuCode);
         }
+        return reserved;
     }
 
+    /**
+     * Puts previously reserved units back. Database rows are updated with one
+     * statement; SKUs in either ledger get their units back once the transaction
+     * commits.
+     */
+    public void restock(Map<String, Integer> quantities) {
+        whileModesFixed(() -> {
+            Map<String, Long> fromDatabase = new HashMap<>();
+            quantities.forEach((skuCode, quantity) -> {
+                boolean tracked = hotSkuLedger.releaseAfterCommit(skuCode, quantity,
+                        () -> inventoryRepository.subtractStock(Map.of(skuCode, (long) -quantity)))
+                        || movementLedger.release(skuCode, quantity);
+                if (!tracked) {
+                    fromDatabase.put(skuCode, (long) -quantity);
+                }
+            });
+            return inventoryRepository.subtractStock(fromDatabase);
+        });
+        evictSkus(quantities.keySet());
+    }
+
+    /**
+     * Reserves every item of the batch or none of them. The rows are locked and
+     * decremented with one statement each, whatever the number of SKUs.
+     * @param items SKU and quantity pairs, repeated SKUs are summed up
+     * @return whether the batch was reserved and the outcome of each SKU
+     */
+    @Transactional
+    public BatchReservationResponse reserveBatch(List<ReservationItem> items) {
+        log.info("Reserving stock for a batch of {} items", items.size());
+        return whileModesFixed(() -> reserveBatchLocked(items));
+    }
 
-    public List<Inventory> getAllInventory() {
-        return inventoryRepository.findAll();
+    // Holds both ledgers' read locks, hot SKU ledger first
+    private <T> T whileModesFixed(Supplier<T> action) {
+        return hotSkuLedger.whileModesFixed(() -> movementLedger.whileModesFixed(action));
+    }
+
+    private BatchReservationResponse reserveBatchLocked(List<ReservationItem> items) {
+        Map<String, Integer> requested = new LinkedHashMap<>();
+        boolean valid = true;
+        for (ReservationItem item : items) {
+            if (item.quantity() == null || item.quantity() <= 0) {
+                log.warn("Invalid quantity: {} for SKU: {}. Quantity must be greater than 0.", item.quantity(), item.skuCode());
+                valid = false;
+            }
+            requested.merge(item.skuCode(), item.quantity() == null ? 0 : item.quantity(), Integer::sum);
+        }
+
+        // Hot SKUs are reserved from memory straight away; the ledger gives them
+        // back if the transaction rolls back.
+        Map<String, Integer> fromLedger = new LinkedHashMap<>();
+        Map<String, Integer> fromMovements = new LinkedHashMap<>();
+        Map<String, Integer> fromBuckets = new LinkedHashMap<>();
+        Map<String, Integer> fromDatabase = new LinkedHashMap<>();
+        Map<String, Boolean> inStock = new LinkedHashMap<>();
+        if (valid) {
+            for (Map.Entry<String, Integer> entry : requested.entrySet()) {
+                switch (hotSkuLedger.tryReserve(entry.getKey(), entry.getValue())) {
+                    case RESERVED -> {
+                        fromLedger.put(entry.getKey(), entry.getValue());
+                        inStock.put(entry.getKey(), true);
+                    }
+                    case REJECTED -> inStock.put(entry.getKey(), false);
+                    case NOT_TRACKED -> {
+                        InventoryMovementLedger.Result movement = movementLedger.tryReserve(entry.getKey(), entry.getValue());
+                        if (movement != InventoryMovementLedger.Result.NOT_TRACKED) {
+                            boolean reserved = movement == InventoryMovementLedger.Result.RESERVED;
+                            if (reserved) {
+                                fromMovements.put(entry.getKey(), entry.getValue());
+                            }
+                            inStock.put(entry.getKey(), reserved);
+                        } else if (!inventoryBucketService.isSplit(entry.getKey())) {
+                            fromDatabase.put(entry.getKey(), entry.getValue());
+                        } else if (inventoryBucketService.reserve(entry.getKey(), entry.getValue())) {
+                            fromBuckets.put(entry.getKey(), entry.getValue());
+                            inStock.put(entry.getKey(), true);
+                        } else {
+                            inStock.put(entry.getKey(), false);
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, Integer> available = inventoryRepository.lockQuantities(fromDatabase.keySet());
+        for (Iterator<Map.Entry<String, Integer>> it = fromDatabase.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Integer> entry = it.next();
+            Integer availableQty = available.get(entry.getKey());
+            if (availableQty != null && availableQty >= entry.getValue()) {
+                inStock.put(entry.getKey(), true);
+            } else if (inventoryBucketService.countBuckets(entry.getKey()) == 0) {
+                inStock.put(entry.getKey(), false);
+            } else {
+                // Split by another instance since this one last refreshed its bucket counts
+                it.remove();
+                boolean reserved = inventoryBucketService.reserve(entry.getKey(), entry.getValue());
+                if (reserved) {
+                    fromBuckets.put(entry.getKey(), entry.getValue());
+                }
+                inStock.put(entry.getKey(), reserved);
+            }
+        }
+
+        List<ReservationOutcome> outcomes = new ArrayList<>(requested.size());
+        boolean reservable = valid;
+        for (Map.Entry<String, Integer> entry : requested.entrySet()) {
+            boolean skuInStock = inStock.getOrDefault(entry.getKey(), false);
+            skuTrafficMonitor.recordRequest(entry.getKey());
+            if (!skuInStock) {
+                skuTrafficMonitor.recordRejection(entry.getKey());
+            }
+            outcomes.add(new ReservationOutcome(entry.getKey(), entry.getValue(), skuInStock));
+            reservable &= skuInStock;
+        }
+
+        if (!reservable) {
+            fromLedger.forEach(hotSkuLedger::release);
+            fromMovements.forEach(movementLedger::release);
+            Map<String, Long> bucketRefunds = new HashMap<>();
+            fromBuckets.forEach((skuCode, quantity) -> bucketRefunds.put(skuCode, (long) -quantity));
+            inventoryRepository.subtractStock(bucketRefunds);
+            log.warn("Batch not reserved, outcomes: {}", outcomes);
+            return new BatchReservationResponse(false, outcomes);
+        }
+
+        // The rows are locked, so the guarded update must match every SKU.
+        int updated = inventoryRepository.decrementStock(fromDatabase);
+        if (updated != fromDatabase.size()) {
+            throw new IllegalStateException("Expected to reserve " + fromDatabase.size() + " SKUs but updated " + updated);
+        }
+        evictSkus(requested.keySet());
+        log.info("Batch reserved for {} SKUs", requested.size());
+        return new BatchReservationResponse(true, outcomes);
+    }
+
+    /**
+     * Returns the next page of items after the given id, ordered by id.
+     * @param afterId the id of the last item of the previous page, 0 for the first page
+     * @param limit the page size, capped at {@value #MAX_PAGE_SIZE}
+     */
+    public List<Inventory> getInventoryPage(Long afterId, Integer limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return inventoryRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+    }
+
+    /**
+     * Streams every item to the consumer without holding the table in memory.
+     */
+    public void streamAllInventory(Consumer<Inventory> consumer) {
+        inventoryRepository.forEachInventory(listingFetchSize, consumer);
+    }
+
+    /**
+     * Writes a stream of records in chunks of {@code inventory.bulk.chunk-size},
+     * one transaction per chunk, so memory use does not grow with the input. When
+     * a chunk fails, the chunks before it stay committed. SKUs served by either
+     * ledger or split into buckets are skipped, since their stock does not live
+     * in their row alone, as are adjustments of unknown SKUs. Adjustments
+     * stop at zero stock.
+     * @param delta whether the quantities are added to the stock or replace it
+     * @throws IllegalArgumentException for a negative quantity to replace the stock with
+     */
+    public BulkImportResponse importStock(Iterator<StockLevel> records, boolean delta) {
+        long startedAt = System.nanoTime();
+        List<StockLevel> chunk = new ArrayList<>(bulkChunkSize);
+        long rows = 0;
+        long written = 0;
+        while (records.hasNext()) {
+            StockLevel record = records.next();
+            if (!delta && record.quantity() < 0) {
+                throw new IllegalArgumentException("Record " + (rows + chunk.size() + 1) + " has a negative quantity: "
+                        + record.quantity());
+            }
+            chunk.add(record);
+            if (chunk.size() == bulkChunkSize || !records.hasNext()) {
+                rows += chunk.size();
+                written += writeChunk(chunk, delta);
+                chunk.clear();
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        log.info("Bulk {} of {} rows finished in {} ms, {} skipped", delta ? "adjustment" : "import", rows, elapsedMillis, rows - written);
+        return new BulkImportResponse(written, rows - written, elapsedMillis);
+    }
+
+    private int writeChunk(List<StockLevel> chunk, boolean delta) {
+        return whileModesFixed(() -> transactionTemplate.execute(status -> {
+            List<StockLevel> rows = chunk.stream()
+                    .filter(row -> !hotSkuLedger.isTracked(row.skuCode()) && !movementLedger.isTracked(row.skuCode())
+                            && !inventoryBucketService.isSplit(row.skuCode()))
+                    .toList();
+            int written = rows.size();
+            if (delta) {
+                written = inventoryRepository.adjustStock(rows);
+            } else {
+                inventoryRepository.upsertStock(rows);
+            }
+            evictSkus(rows.stream().map(StockLevel::skuCode).toList());
+            return written;
+        }));
     }
 
     public Inventory addInventory(Inventory inventory) {
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        evictSkus(List.of(saved.getSkuCode()));
+        return saved;
     }
 
     public Inventory updateQuantity(Long id, Integer quantity) {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Item not found"));
-        inventory.setQuantity(quantity);
-        return inventoryRepository.save(inventory);
+        if (inventoryBucketService.isSplit(inventory.getSkuCode())) {
+            throw new SkuModeConflictException("SKU '" + inventory.getSkuCode() + "' is split into buckets, merge it first");
+        }
+        Inventory updated = hotSkuLedger.whileDetached(inventory.getSkuCode(),
+                () -> movementLedger.whileDetached(inventory.getSkuCode(), () -> {
+                    inventory.setQuantity(quantity);
+                    return inventoryRepository.save(inventory);
+                }));
+        evictSkus(List.of(updated.getSkuCode()));
+        return updated;
     }
 
     public void deleteInventory(Long id) {
+        Optional<Inventory> existing = inventoryRepository.findById(id);
+        existing.ifPresent(inventory -> {
+            hotSkuLedger.disable(inventory.getSkuCode());
+            movementLedger.disable(inventory.getSkuCode());
+            inventoryBucketService.delete(inventory.getSkuCode());
+        });
         inventoryRepository.deleteById(id);
+        existing.ifPresent(inventory -> evictSkus(List.of(inventory.getSkuCode())));
     }
 
+    /**
+     * Read-through lookup. Concurrent misses on the same SKU share one query, and
+     * every write made through this service evicts the SKUs it touched.
+     */
+    @Transactional(readOnly = true)
     public Inventory getBySkuCode(String skuCode) {
-        return inventoryRepository.findBySkuCode(skuCode)
-                .orElseThrow(() -> new RuntimeException("Item not found"));
+        Inventory inventory = skuCache.get(skuCode, key -> inventoryRepository.findByNaturalId(key).orElse(null));
+        if (inventory == null) {
+            throw new RuntimeException("Item not found");
+        }
+        return inventory;
+    }
+
+    // Evicting once the transaction is over means a lookup that loaded the old row
+    // before the commit cannot leave it in the cache afterwards.
+    private void evictSkus(Collection<String> skuCodes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            skuCache.invalidateAll(skuCodes);
+            return;
+        }
+        List<String> evicted = List.copyOf(skuCodes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                skuCache.invalidateAll(evicted);
+            }
+        });
     }
 }
@@ -0,0 +1,246 @@
+package com.ctse.microservice.inventoryService.service;
+
+import com.ctse.microservice.inventoryService.dto.HoldRequest;
+import com.ctse.microservice.inventoryService.dto.HoldResponse;
+import com.ctse.microservice.inventoryService.exception.HoldNotFoundException;
+import com.ctse.microservice.inventoryService.model.InventoryHold;
+import com.ctse.microservice.inventoryService.repository.InventoryHoldRepository;
+import com.ctse.microservice.inventoryService.util.HashedTimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Time-limited stock holds. Placing a hold reserves the stock straight away;
+ * committing the hold keeps it, releasing or letting it expire puts it back.
+ * Expiry is driven by a {@link HashedTimerWheel} rather than per-hold tasks or
+ * polling, and the expired holds of each tick are reclaimed in one transaction.
+ * <p>
+ * Every call can be repeated safely: a hold placed under an Idempotency-Key is
+ * handed back on a retry, and a committed hold stays behind for
+ * {@code inventory.holds.committed-retention}, so committing it again succeeds.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationHoldService {
+    private static final int EXPIRY_CHUNK_SIZE = 1000;
+    private static final Duration EXPIRY_RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final InventoryHoldRepository holdRepository;
+    private final InventoryService inventoryService;
+    private final IdempotencyKeyService idempotencyKeyService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.holds.default-ttl:10m}")
+    private Duration defaultTtl;
+
+    @Value("${inventory.holds.max-ttl:1h}")
+    private Duration maxTtl;
+
+    @Value("${inventory.holds.committed-retention:1d}")
+    private Duration committedRetention;
+
+    @Value("${inventory.holds.cleanup-batch-size:5000}")
+    private int cleanupBatchSize;
+
+    @Value("${inventory.holds.wheel.tick:100ms}")
+    private Duration wheelTick;
+
+    @Value("${inventory.holds.wheel.size:512}")
+    private int wheelSize;
+
+    private HashedTimerWheel<UUID> expiryWheel;
+    private Counter expiredHolds;
+
+    @PostConstruct
+    void start() {
+        expiryWheel = new HashedTimerWheel<>("hold-expiry", wheelTick, wheelSize, this::expireHolds);
+        Gauge.builder("inventory.holds.scheduled", expiryWheel, HashedTimerWheel::pending)
+                .description("Holds waiting for their expiry in the timer wheel")
+                .register(meterRegistry);
+        expiredHolds = Counter.builder("inventory.holds.expired")
+                .description("Holds reclaimed after their TTL ran out")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        expiryWheel.stop();
+    }
+
+    /**
+     * Puts every hold left over from a previous run back on the timer wheel.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void scheduleOutstandingHolds() {
+        Instant now = Instant.now();
+        try (Stream<InventoryHoldRepository.HoldExpiry> holds = holdRepository.streamExpiries()) {
+            long count = holds.peek(hold -> expiryWheel.schedule(hold.getHoldId(), Duration.between(now, hold.getExpiresAt())))
+                    .count();
+            log.info("Scheduled {} outstanding holds for expiry", count);
+        }
+    }
+
+    /**
+     * @param idempotencyKey null, or a key under which a retry gets the same hold back
+     * @throws HoldNotFoundException if the hold placed under the key is gone
+     */
+    @Transactional
+    public HoldResponse placeHold(HoldRequest request, String idempotencyKey) {
+        log.info("Placing hold for SKU: {}, quantity: {}", request.skuCode(), request.quantity());
+        if (request.quantity() == null || request.quantity() <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        Duration ttl = request.ttlSeconds() == null ? defaultTtl : Duration.ofSeconds(request.ttlSeconds());
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("TTL must be between 1 second and " + maxTtl.toSeconds() + " seconds");
+        }
+
+        if (idempotencyKey != null) {
+            Optional<Boolean> replayed = idempotencyKeyService.claim(idempotencyKey);
+            if (replayed.isPresent()) {
+                return replayed.get() ? holdRepository.findByIdempotencyKey(IdempotencyKeyService.hash(idempotencyKey))
+                        .map(ReservationHoldService::toResponse)
+                        .orElseThrow(() -> new HoldNotFoundException(idempotencyKey))
+                        : new HoldResponse(false, null, request.skuCode(), request.quantity(), null);
+            }
+        }
+
+        if (!inventoryService.reserveStock(request.skuCode(), request.quantity())) {
+            log.warn("Not enough stock to hold SKU '{}'. Requested: {}", request.skuCode(), request.quantity());
+            if (idempotencyKey != null) {
+                idempotencyKeyService.recordResult(idempotencyKey, false);
+            }
+            return new HoldResponse(false, null, request.skuCode(), request.quantity(), null);
+        }
+
+        InventoryHold hold = holdRepository.save(new InventoryHold(null, request.skuCode(), request.quantity(),
+                Instant.now().plus(ttl), null, idempotencyKey == null ? null : IdempotencyKeyService.hash(idempotencyKey)));
+        if (idempotencyKey != null) {
+            idempotencyKeyService.recordResult(idempotencyKey, true);
+        }
+        // Only start the clock once the hold row is visible to the expiry transaction
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiryWheel.schedule(hold.getHoldId(), ttl);
+            }
+        });
+        return toResponse(hold);
+    }
+
+    /**
+     * Makes the held stock permanent. Committing a committed hold again does nothing.
+     * @throws HoldNotFoundException if the hold was already released or has expired
+     */
+    @Transactional
+    public void commitHold(UUID holdId) {
+        commitHolds(List.of(holdId));
+    }
+
+    /**
+     * Commits all the holds or, if one of them was released or has expired,
+     * none of them.
+     * @throws HoldNotFoundException for the first hold that cannot be committed
+     */
+    @Transactional
+    public void commitHolds(List<UUID> holdIds) {
+        Instant now = Instant.now();
+        Map<UUID, InventoryHold> holds = new HashMap<>();
+        holdRepository.findAllForUpdate(holdIds).forEach(hold -> holds.put(hold.getHoldId(), hold));
+        for (UUID holdId : holdIds) {
+            InventoryHold hold = holds.get(holdId);
+            // Past its TTL it is reclaimed by the wheel, however late that fires
+            if (hold == null || (hold.getCommittedAt() == null && !hold.getExpiresAt().isAfter(now))) {
+                throw new HoldNotFoundException(holdId);
+            }
+        }
+        holds.values().stream()
+                .filter(hold -> hold.getCommittedAt() == null)
+                .forEach(hold -> hold.setCommittedAt(now));
+        log.info("Holds {} committed", holdIds);
+    }
+
+    /**
+     * Puts the held stock back. Releasing an unknown or expired hold does nothing.
+     */
+    @Transactional
+    public void releaseHold(UUID holdId) {
+        reclaim(List.of(holdId));
+        log.info("Hold {} released", holdId);
+    }
+
+    /**
+     * Deletes committed holds older than {@code inventory.holds.committed-retention}.
+     */
+    @Scheduled(fixedDelayString = "${inventory.holds.cleanup-interval:1m}")
+    public void purgeCommitted() {
+        Instant before = Instant.now().minus(committedRetention);
+        int deleted;
+        int total = 0;
+        do {
+            deleted = holdRepository.deleteCommitted(before, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            log.info("Purged {} committed holds", total);
+        }
+    }
+
+    private void expireHolds(List<UUID> holdIds) {
+        for (int from = 0; from < holdIds.size(); from += EXPIRY_CHUNK_SIZE) {
+            List<UUID> chunk = holdIds.subList(from, Math.min(holdIds.size(), from + EXPIRY_CHUNK_SIZE));
+            try {
+                Integer reclaimed = transactionTemplate.execute(status -> reclaim(chunk));
+                expiredHolds.increment(reclaimed == null ? 0 : reclaimed);
+            } catch (RuntimeException e) {
+                log.error("Failed to expire {} holds, retrying in {}", chunk.size(), EXPIRY_RETRY_DELAY, e);
+                chunk.forEach(holdId -> expiryWheel.schedule(holdId, EXPIRY_RETRY_DELAY));
+            }
+        }
+    }
+
+    // Committed holds keep their stock and are left for purgeCommitted
+    private int reclaim(List<UUID> holdIds) {
+        List<InventoryHold> holds = holdRepository.findAllForUpdate(holdIds).stream()
+                .filter(hold -> hold.getCommittedAt() == null)
+                .toList();
+        if (holds.isEmpty()) {
+            return 0;
+        }
+        Map<String, Integer> quantities = new HashMap<>();
+        holds.forEach(hold -> quantities.merge(hold.getSkuCode(), hold.getQuantity(), Integer::sum));
+        holdRepository.deleteAllInBatch(holds);
+        inventoryService.restock(quantities);
+        return holds.size();
+    }
+
+    private static HoldResponse toResponse(InventoryHold hold) {
+        return new HoldResponse(true, hold.getHoldId(), hold.getSkuCode(), hold.getQuantity(), hold.getExpiresAt());
+    }
+}
@@ -0,0 +1,136 @@
+package com.ctse.microservice.inventoryService.service;
+
+import com.ctse.microservice.inventoryService.dto.SkuRate;
+import com.ctse.microservice.inventoryService.dto.SkuTrafficReport;
+import com.ctse.microservice.inventoryService.util.SlidingCountMinSketch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the SKUs that receive the most reservations, and the most rejected ones,
+ * over a sliding window. Every reservation is counted in a Count-Min sketch; SKUs
+ * whose estimate beats the current top-K enter a small candidate set, which is
+ * trimmed back to the top-K on every refresh. Memory stays bounded whatever the
+ * number of SKUs and recording takes no locks.
+ * <p>
+ * The top-K SKUs are published as {@code inventory.sku.requests.top} and
+ * {@code inventory.sku.rejections.top} gauges, in reservations per second, and
+ * through the {@code skutraffic} actuator endpoint. They are the candidates for
+ * the hot SKU ledger, the movement ledger or buckets.
+ */
+@Service
+@RequiredArgsConstructor
+public class SkuTrafficMonitor {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.sku-traffic.window:1m}")
+    private Duration window;
+
+    @Value("${inventory.sku-traffic.slots:6}")
+    private int slots;
+
+    @Value("${inventory.sku-traffic.depth:4}")
+    private int depth;
+
+    @Value("${inventory.sku-traffic.width:2048}")
+    private int width;
+
+    @Value("${inventory.sku-traffic.top-k:20}")
+    private int topK;
+
+    private HeavyHitters requests;
+    private HeavyHitters rejections;
+    private MultiGauge requestGauge;
+    private MultiGauge rejectionGauge;
+
+    @PostConstruct
+    void start() {
+        requests = new HeavyHitters();
+        rejections = new HeavyHitters();
+        requestGauge = MultiGauge.builder("inventory.sku.requests.top")
+                .description("Reservations per second of the most requested SKUs")
+                .baseUnit("requests")
+                .register(meterRegistry);
+        rejectionGauge = MultiGauge.builder("inventory.sku.rejections.top")
+                .description("Rejected reservations per second of the most rejected SKUs")
+                .baseUnit("requests")
+                .register(meterRegistry);
+    }
+
+    public void recordRequest(String skuCode) {
+        requests.record(skuCode);
+    }
+
+    public void recordRejection(String skuCode) {
+        rejections.record(skuCode);
+    }
+
+    public SkuTrafficReport getReport() {
+        return new SkuTrafficReport(window, requests.top(), rejections.top());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sku-traffic.refresh-interval:5s}")
+    public void refresh() {
+        requestGauge.register(rows(requests.trim()), true);
+        rejectionGauge.register(rows(rejections.trim()), true);
+    }
+
+    private static List<MultiGauge.Row<?>> rows(List<SkuRate> rates) {
+        return rates.stream()
+                .<MultiGauge.Row<?>>map(rate -> MultiGauge.Row.of(Tags.of("sku", rate.skuCode()), rate.perSecond()))
+                .toList();
+    }
+
+    private class HeavyHitters {
+        private final SlidingCountMinSketch sketch = new SlidingCountMinSketch(window, slots, depth, width);
+        private final Map<String, Boolean> candidates = new ConcurrentHashMap<>();
+        // Estimate of the K-th SKU at the last trim, what a newcomer has to beat
+        private volatile long threshold;
+
+        void record(String skuCode) {
+            sketch.add(skuCode, 1);
+            if (candidates.containsKey(skuCode)) {
+                return;
+            }
+            // Candidates can outgrow K between trims, but never twice over
+            if (candidates.size() < 2 * topK && sketch.estimate(skuCode) > threshold) {
+                candidates.put(skuCode, Boolean.TRUE);
+            }
+        }
+
+        List<SkuRate> top() {
+            double seconds = window.toMillis() / 1000.0;
+            return candidates.keySet().stream()
+                    .map(skuCode -> {
+                        long count = sketch.estimate(skuCode);
+                        return new SkuRate(skuCode, count, count / seconds);
+                    })
+                    .filter(rate -> rate.count() > 0)
+                    .sorted(Comparator.comparingLong(SkuRate::count).reversed())
+                    .limit(topK)
+                    .toList();
+        }
+
+        List<SkuRate> trim() {
+            List<SkuRate> top = top();
+            List<String> dropped = new ArrayList<>(candidates.keySet());
+            top.forEach(rate -> dropped.remove(rate.skuCode()));
+            dropped.forEach(candidates::remove);
+            threshold = top.size() < topK ? 0 : top.getLast().count();
+            return top;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.ctse.microservice.inventoryService.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Flat combining per key: callers publish their request in the key's queue and
+ * whichever caller wins the key's combiner flag applies every queued request in
+ * one call of the handler, then hands each waiter its own result. The other
+ * callers just wait, so a burst of requests for one key costs one handler call
+ * instead of one each.
+ * <p>
+ * When other requests are already queued, the combiner waits {@code window}
+ * before draining so the rest of the burst can gather; a request on its own is
+ * applied straight away. It takes at most {@code maxBatchSize} requests per
+ * call, in arrival order. Keys
+ * are dropped once their queue is empty, so memory follows the keys in flight.
+ */
+public class FlatCombiner<K, T, R> {
+
+    /**
+     * Applies a batch of requests for one key.
+     * @return one result per request, in the same order
+     */
+    @FunctionalInterface
+    public interface BatchHandler<K, T, R> {
+        List<R> apply(K key, List<T> requests);
+    }
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BatchHandler<K, T, R> handler;
+    private final Map<K, Lane<T, R>> lanes = new ConcurrentHashMap<>();
+
+    private static final class Lane<T, R> {
+        final Queue<Pending<T, R>> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean combining = new AtomicBoolean();
+    }
+
+    private static final class Pending<T, R> {
+        final T request;
+        final Thread waiter = Thread.currentThread();
+        R result;
+        RuntimeException failure;
+        volatile boolean done;
+
+        Pending(T request) {
+            this.request = request;
+        }
+    }
+
+    public FlatCombiner(Duration window, int maxBatchSize, BatchHandler<K, T, R> handler) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.handler = handler;
+    }
+
+    /**
+     * Applies the request, possibly together with concurrent requests for the
+     * same key, and waits for its result.
+     * @throws RuntimeException whatever the handler threw for the batch
+     */
+    public R submit(K key, T request) {
+        Pending<T, R> pending = new Pending<>(request);
+        Lane<T, R> lane = lanes.computeIfAbsent(key, k -> new Lane<>());
+        // A lane dropped concurrently still works, it just combines fewer requests
+        lane.queue.add(pending);
+
+        while (!pending.done) {
+            if (lane.combining.compareAndSet(false, true)) {
+                try {
+                    combine(key, lane, pending);
+                } finally {
+                    lane.combining.set(false);
+                }
+                Pending<T, R> head = lane.queue.peek();
+                if (head == null) {
+                    lanes.remove(key, lane);
+                } else if (head != pending) {
+                    // Hand the flag over instead of letting the next waiter sleep out its timeout
+                    LockSupport.unpark(head.waiter);
+                }
+            } else {
+                // Woken by the combiner; the timeout covers a combiner that left
+                // before our request was queued
+                LockSupport.parkNanos(this, Math.max(windowNanos, TimeUnit.MICROSECONDS.toNanos(100)));
+            }
+        }
+        if (pending.failure != null) {
+            throw pending.failure;
+        }
+        return pending.result;
+    }
+
+    private void combine(K key, Lane<T, R> lane, Pending<T, R> own) {
+        if (windowNanos > 0 && !alone(lane, own)) {
+            LockSupport.parkNanos(this, windowNanos);
+        }
+        List<Pending<T, R>> batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+        Pending<T, R> next;
+        while (batch.size() < maxBatchSize && (next = lane.queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<R> results = null;
+        RuntimeException failure = null;
+        try {
+            results = handler.apply(key, batch.stream().map(p -> p.request).toList());
+            if (results.size() != batch.size()) {
+                failure = new IllegalStateException("Expected " + batch.size() + " results but got " + results.size());
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Pending<T, R> pending = batch.get(i);
+            if (failure != null) {
+                pending.failure = failure;
+            } else {
+                pending.result = results.get(i);
+            }
+            pending.done = true;
+            LockSupport.unpark(pending.waiter);
+        }
+    }
+
+    // Nothing else is queued, so there is no burst to wait for
+    private static <T, R> boolean alone(Lane<T, R> lane, Pending<T, R> own) {
+        Iterator<Pending<T, R>> queued = lane.queue.iterator();
+        return queued.hasNext() && queued.next() == own && !queued.hasNext();
+    }
+}
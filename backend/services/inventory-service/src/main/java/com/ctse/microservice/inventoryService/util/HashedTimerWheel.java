@@ -0,0 +1,134 @@
+package com.ctse.microservice.inventoryService.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: timeouts are hashed into a ring of buckets by their
+ * deadline tick, and a single worker thread only ever looks at the bucket of
+ * the current tick. Scheduling is an O(1) lock-free enqueue and each timeout
+ * costs one small node, so millions of outstanding timeouts stay cheap.
+ * Expired payloads are handed to the handler in one batch per tick; deadlines
+ * are rounded up to the tick duration.
+ */
+@Slf4j
+public class HashedTimerWheel<T> {
+
+    private final long tickNanos;
+    private final Node<T>[] wheel;
+    private final int mask;
+    private final Consumer<List<T>> handler;
+    private final Queue<Node<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+
+    private static final class Node<T> {
+        final T payload;
+        final long deadline;
+        long rounds;
+        Node<T> next;
+
+        Node(T payload, long deadline) {
+            this.payload = payload;
+            this.deadline = deadline;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public HashedTimerWheel(String name, Duration tick, int wheelSize, Consumer<List<T>> handler) {
+        int size = wheelSize <= 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = tick.toNanos();
+        this.wheel = (Node<T>[]) new Node[size];
+        this.mask = size - 1;
+        this.handler = handler;
+        this.startNanos = System.nanoTime();
+        this.worker = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    public void schedule(T payload, Duration delay) {
+        long deadline = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+        scheduled.add(new Node<>(payload, deadline));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * @return the number of timeouts that have not fired yet
+     */
+    public long pending() {
+        return pending.get();
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos;
+            while (running && (sleepNanos = tickDeadline - (System.nanoTime() - startNanos)) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+            if (!running) {
+                return;
+            }
+            transferScheduled(tick);
+            List<T> expired = expire(tick, tickDeadline);
+            if (!expired.isEmpty()) {
+                pending.addAndGet(-expired.size());
+                try {
+                    handler.accept(expired);
+                } catch (RuntimeException e) {
+                    log.error("Timer wheel handler failed for {} timeouts", expired.size(), e);
+                }
+            }
+            tick++;
+        }
+    }
+
+    private void transferScheduled(long tick) {
+        Node<T> node;
+        while ((node = scheduled.poll()) != null) {
+            long deadlineTick = Math.max(tick, (node.deadline + tickNanos - 1) / tickNanos - 1);
+            node.rounds = (deadlineTick - tick) / wheel.length;
+            int bucket = (int) (deadlineTick & mask);
+            node.next = wheel[bucket];
+            wheel[bucket] = node;
+        }
+    }
+
+    private List<T> expire(long tick, long tickDeadline) {
+        int bucket = (int) (tick & mask);
+        List<T> expired = new ArrayList<>();
+        Node<T> previous = null;
+        Node<T> node = wheel[bucket];
+        while (node != null) {
+            Node<T> next = node.next;
+            if (node.rounds <= 0 && node.deadline <= tickDeadline) {
+                expired.add(node.payload);
+                if (previous == null) {
+                    wheel[bucket] = next;
+                } else {
+                    previous.next = next;
+                }
+            } else {
+                node.rounds--;
+                previous = node;
+            }
+            node = next;
+        }
+        return expired;
+    }
+}
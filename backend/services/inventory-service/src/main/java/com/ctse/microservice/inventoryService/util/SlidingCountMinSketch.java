@@ -0,0 +1,104 @@
+package com.ctse.microservice.inventoryService.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch over a sliding time window. The window is cut into slots, each
+ * with its own depth x width counter matrix; a slot is cleared when the clock
+ * comes back round to it. Counting is a handful of atomic increments and memory
+ * is fixed whatever the number of distinct keys. Estimates never undercount and
+ * overcount by at most about {@code e / width} of the window's total.
+ * <p>
+ * A slot being cleared can drop a few concurrent increments; that is within the
+ * sketch's error and keeps the hot path free of locks.
+ */
+public class SlidingCountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long slotMillis;
+    private final AtomicLongArray[] slots;
+    private final AtomicLong[] slotEpochs;
+
+    public SlidingCountMinSketch(Duration window, int slotCount, int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.slotMillis = Math.max(1, window.toMillis() / slotCount);
+        this.slots = new AtomicLongArray[slotCount];
+        this.slotEpochs = new AtomicLong[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new AtomicLongArray(depth * width);
+            slotEpochs[i] = new AtomicLong(-1);
+        }
+    }
+
+    public void add(String key, long count) {
+        long epoch = System.currentTimeMillis() / slotMillis;
+        AtomicLongArray counters = currentSlot(epoch);
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(row * width + index(h1 + row * h2), count);
+        }
+    }
+
+    /**
+     * @return the estimated count of the key over the last full window
+     */
+    public long estimate(String key) {
+        long epoch = System.currentTimeMillis() / slotMillis;
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = row * width + index(h1 + row * h2);
+            long sum = 0;
+            for (int slot = 0; slot < slots.length; slot++) {
+                long slotEpoch = slotEpochs[slot].get();
+                if (slotEpoch > epoch - slots.length && slotEpoch <= epoch) {
+                    sum += slots[slot].get(column);
+                }
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    public Duration getWindow() {
+        return Duration.ofMillis(slotMillis * slots.length);
+    }
+
+    private AtomicLongArray currentSlot(long epoch) {
+        int slot = (int) (epoch % slots.length);
+        AtomicLong slotEpoch = slotEpochs[slot];
+        long seen = slotEpoch.get();
+        if (seen != epoch && seen < epoch && slotEpoch.compareAndSet(seen, epoch)) {
+            AtomicLongArray counters = slots[slot];
+            for (int i = 0; i < counters.length(); i++) {
+                counters.set(i, 0);
+            }
+        }
+        return slots[slot];
+    }
+
+    private int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % width;
+    }
+
+    // 64-bit FNV-1a, split into two 32-bit hashes for double hashing
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
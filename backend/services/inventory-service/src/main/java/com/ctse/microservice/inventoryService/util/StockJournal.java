@@ -0,0 +1,219 @@
+package com.ctse.microservice.inventoryService.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of stock deltas, split into numbered segments.
+ * {@link #append} returns once the record is on disk; concurrent appenders share
+ * a single fsync (group commit). A segment is closed by {@link #rotate} and can be
+ * deleted once its deltas are applied to the database.
+ * <p>
+ * Record layout: crc32 (int), SKU length (short), SKU (UTF-8), delta (long).
+ */
+public class StockJournal implements Closeable {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private Segment current;
+
+    public StockJournal(Path directory, long firstSegment) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.current = Segment.open(directory, firstSegment);
+    }
+
+    /**
+     * Appends a delta and waits until it is durable.
+     */
+    public void append(String skuCode, long delta) throws IOException {
+        append(skuCode, delta, () -> {
+        });
+    }
+
+    /**
+     * Appends a delta and waits until it is durable. {@code onWritten} runs once
+     * the record is written and before any {@link #rotate}, so whatever it counts
+     * belongs to the same segment as the record. It must be quick.
+     */
+    public void append(String skuCode, long delta, Runnable onWritten) throws IOException {
+        byte[] sku = skuCode.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(4 + 2 + sku.length + 8);
+        record.position(4);
+        record.putShort((short) sku.length).put(sku).putLong(delta);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, record.capacity() - 4);
+        record.putInt(0, (int) crc.getValue());
+        record.rewind();
+
+        Segment segment;
+        long end;
+        synchronized (this) {
+            segment = current;
+            while (record.hasRemaining()) {
+                segment.channel.write(record);
+            }
+            end = segment.channel.position();
+            segment.written = end;
+            onWritten.run();
+        }
+        segment.sync(end);
+    }
+
+    /**
+     * Closes the current segment and starts the next one.
+     * @return the number of the closed segment
+     */
+    public long rotate() throws IOException {
+        return rotate(() -> {
+        });
+    }
+
+    /**
+     * Runs {@code beforeRotate} and starts the next segment with no append in
+     * between, then closes the previous segment. Appenders only wait for the
+     * switch, not for the closing fsync.
+     * @return the number of the closed segment
+     */
+    public long rotate(Runnable beforeRotate) throws IOException {
+        Segment closed;
+        synchronized (this) {
+            beforeRotate.run();
+            closed = current;
+            current = Segment.open(directory, closed.number + 1);
+        }
+        closed.close();
+        return closed.number;
+    }
+
+    /**
+     * Deletes every closed segment up to and including the given one.
+     */
+    public void deleteUpTo(long segment) throws IOException {
+        long open;
+        synchronized (this) {
+            open = current.number;
+        }
+        for (Map.Entry<Long, Path> entry : list(directory).entrySet()) {
+            if (entry.getKey() <= segment && entry.getKey() != open) {
+                Files.deleteIfExists(entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        current.close();
+    }
+
+    /**
+     * Reads every segment left in the directory.
+     * @return the summed delta per SKU of each segment, by segment number
+     */
+    public static SortedMap<Long, Map<String, Long>> readSegments(Path directory) throws IOException {
+        SortedMap<Long, Map<String, Long>> segments = new TreeMap<>();
+        for (Map.Entry<Long, Path> entry : list(directory).entrySet()) {
+            Map<String, Long> deltas = new HashMap<>();
+            try (InputStream in = Files.newInputStream(entry.getValue())) {
+                readRecords(new DataInputStream(new BufferedInputStream(in)), deltas);
+            }
+            segments.put(entry.getKey(), deltas);
+        }
+        return segments;
+    }
+
+    // Stops at the first torn or corrupt record: it was never acknowledged.
+    private static void readRecords(DataInputStream in, Map<String, Long> deltas) throws IOException {
+        try {
+            while (true) {
+                int crc = in.readInt();
+                short length = in.readShort();
+                byte[] sku = in.readNBytes(length);
+                long delta = in.readLong();
+
+                ByteBuffer record = ByteBuffer.allocate(2 + sku.length + 8);
+                record.putShort(length).put(sku).putLong(delta);
+                CRC32 expected = new CRC32();
+                expected.update(record.array());
+                if (sku.length != length || (int) expected.getValue() != crc) {
+                    return;
+                }
+                deltas.merge(new String(sku, StandardCharsets.UTF_8), delta, Long::sum);
+            }
+        } catch (EOFException e) {
+            // end of segment
+        }
+    }
+
+    private static SortedMap<Long, Path> list(Path directory) throws IOException {
+        SortedMap<Long, Path> segments = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    segments.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static final class Segment {
+        private final long number;
+        private final FileChannel channel;
+        private volatile long written;
+        private long durable;
+
+        private Segment(long number, FileChannel channel) throws IOException {
+            this.number = number;
+            this.channel = channel;
+            this.written = channel.position();
+            this.durable = written;
+        }
+
+        static Segment open(Path directory, long number) throws IOException {
+            Path file = directory.resolve(String.format("%s%020d%s", PREFIX, number, SUFFIX));
+            return new Segment(number, FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        }
+
+        // Whoever gets here first forces everything written so far; the threads
+        // queued behind it find their record already durable.
+        synchronized void sync(long position) throws IOException {
+            if (durable >= position || !channel.isOpen()) {
+                return;
+            }
+            long target = written;
+            channel.force(false);
+            durable = target;
+        }
+
+        synchronized void close() throws IOException {
+            if (channel.isOpen()) {
+                channel.force(false);
+                durable = written;
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ctse.microservice.inventoryService.util;
+
+import com.ctse.microservice.inventoryService.dto.StockLevel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads SKU and quantity pairs one at a time from a CSV ({@code sku_code,quantity},
+ * optional header line) or NDJSON ({@code {"skuCode":...,"quantity":...}} per line)
+ * request body, so an import never holds more than the current line in memory.
+ */
+public abstract class StockLevelReader implements Iterator<StockLevel> {
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private StockLevel next;
+    private long line;
+
+    public static StockLevelReader open(InputStream body, MediaType contentType, ObjectMapper objectMapper) {
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return new Csv(body);
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return new Ndjson(body, objectMapper);
+        }
+        throw new IllegalArgumentException("Unsupported content type " + contentType);
+    }
+
+    /**
+     * @return the next record, or null at the end of the input
+     */
+    protected abstract StockLevel read(long line) throws IOException;
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = read(++line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public StockLevel next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StockLevel level = next;
+        next = null;
+        if (level.skuCode() == null || level.skuCode().isBlank() || level.quantity() == null) {
+            throw new IllegalArgumentException("Record " + line + " needs a SKU code and a quantity");
+        }
+        return level;
+    }
+
+    private static final class Csv extends StockLevelReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+        private boolean firstRecord = true;
+
+        Csv(InputStream body) {
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        protected StockLevel read(long line) throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                int comma = text.indexOf(',');
+                if (comma < 0) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " is not a sku_code,quantity pair");
+                }
+                String quantity = text.substring(comma + 1).trim();
+                boolean mayBeHeader = firstRecord;
+                firstRecord = false;
+                try {
+                    return new StockLevel(text.substring(0, comma).trim(), Integer.valueOf(quantity));
+                } catch (NumberFormatException e) {
+                    if (!mayBeHeader) {
+                        throw new IllegalArgumentException("Line " + lineNumber + " has an invalid quantity: " + quantity);
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Ndjson extends StockLevelReader {
+        private final MappingIterator<StockLevel> values;
+
+        Ndjson(InputStream body, ObjectMapper objectMapper) {
+            try {
+                this.values = objectMapper.readerFor(StockLevel.class).readValues(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        protected StockLevel read(long line) throws IOException {
+            try {
+                return values.hasNextValue() ? values.nextValue() : null;
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Record " + line + " is not valid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+}
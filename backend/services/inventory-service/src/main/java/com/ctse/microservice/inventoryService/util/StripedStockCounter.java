@@ -0,0 +1,89 @@
+package com.ctse.microservice.inventoryService.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available stock of one SKU split over cache-line padded stripes. Each thread
+ * reserves from its home stripe with a CAS and only looks at the other stripes
+ * when its own runs dry, so concurrent reservations rarely touch the same line.
+ * The total can never go below zero, but a reservation larger than any single
+ * stripe may be rejected while other threads are moving units around.
+ */
+public class StripedStockCounter {
+
+    // 8 longs = 64 bytes, one stripe per cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedStockCounter(int stripes, long initial) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            cells.set(i * PADDING, initial / size + (i < initial % size ? 1 : 0));
+        }
+    }
+
+    public boolean tryReserve(long quantity) {
+        int home = homeStripe();
+        for (int i = 0; i <= mask; i++) {
+            if (tryTake((home + i) & mask, quantity)) {
+                return true;
+            }
+        }
+        return gather(home, quantity);
+    }
+
+    public void release(long quantity) {
+        cells.addAndGet(homeStripe() * PADDING, quantity);
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private boolean tryTake(int stripe, long quantity) {
+        int index = stripe * PADDING;
+        long current;
+        while ((current = cells.get(index)) >= quantity) {
+            if (cells.compareAndSet(index, current, current - quantity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // No single stripe holds enough: take what each one can spare and give it
+    // back if the total still falls short.
+    private boolean gather(int home, long quantity) {
+        long taken = 0;
+        for (int i = 0; i <= mask && taken < quantity; i++) {
+            int index = ((home + i) & mask) * PADDING;
+            long current;
+            while ((current = cells.get(index)) > 0) {
+                long take = Math.min(current, quantity - taken);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    taken += take;
+                    break;
+                }
+            }
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        if (taken > 0) {
+            cells.addAndGet(home * PADDING, taken);
+        }
+        return false;
+    }
+
+    private int homeStripe() {
+        return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,18 @@
+-- Fold duplicate SKU rows into the oldest row so the unique index can be added.
+UPDATE t_inventory i
+    JOIN (SELECT MIN(id) AS id, SUM(COALESCE(quantity, 0)) AS quantity
+          FROM t_inventory
+          WHERE sku_code IS NOT NULL
+          GROUP BY sku_code
+          HAVING COUNT(*) > 1) d ON i.id = d.id
+SET i.quantity = d.quantity;
+
+DELETE i
+FROM t_inventory i
+         JOIN t_inventory k ON i.sku_code = k.sku_code AND i.id > k.id;
+
+DELETE FROM t_inventory WHERE sku_code IS NULL;
+
+ALTER TABLE t_inventory
+    MODIFY `sku_code` varchar(255) NOT NULL,
+    ADD CONSTRAINT `uk_inventory_sku_code` UNIQUE (`sku_code`);
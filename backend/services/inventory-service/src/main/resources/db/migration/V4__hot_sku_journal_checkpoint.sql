@@ -0,0 +1,6 @@
+CREATE TABLE `t_inventory_journal_checkpoint`
+(
+    `journal_id` varchar(64) NOT NULL,
+    `segment` bigint(20) NOT NULL,
+    PRIMARY KEY (`journal_id`)
+);
@@ -0,0 +1,8 @@
+CREATE TABLE `t_inventory_hold`
+(
+    `hold_id` binary(16) NOT NULL,
+    `sku_code` varchar(255) NOT NULL,
+    `quantity` int(11) NOT NULL,
+    `expires_at` datetime(6) NOT NULL,
+    PRIMARY KEY (`hold_id`)
+);
@@ -0,0 +1,8 @@
+CREATE TABLE `t_inventory_idempotency`
+(
+    `key_hash` binary(16) NOT NULL,
+    `in_stock` bit(1) NOT NULL,
+    `expires_at` datetime(6) NOT NULL,
+    PRIMARY KEY (`key_hash`),
+    KEY `idx_inventory_idempotency_expires_at` (`expires_at`)
+);
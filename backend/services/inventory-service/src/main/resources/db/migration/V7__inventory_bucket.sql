@@ -0,0 +1,7 @@
+CREATE TABLE `t_inventory_bucket`
+(
+    `sku_code` varchar(255) NOT NULL,
+    `bucket` int(11) NOT NULL,
+    `quantity` int(11) NOT NULL,
+    PRIMARY KEY (`sku_code`, `bucket`)
+);
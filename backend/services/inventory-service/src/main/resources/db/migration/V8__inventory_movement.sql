@@ -0,0 +1,11 @@
+CREATE TABLE `t_inventory_movement`
+(
+    `id` bigint(20) NOT NULL AUTO_INCREMENT,
+    `sku_code` varchar(255) NOT NULL,
+    `quantity` int(11) NOT NULL,
+    `compacted` bit(1) NOT NULL DEFAULT b'0',
+    `created_at` datetime(6) NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `idx_inventory_movement_compacted` (`compacted`, `id`),
+    KEY `idx_inventory_movement_sku_code` (`sku_code`, `compacted`)
+);
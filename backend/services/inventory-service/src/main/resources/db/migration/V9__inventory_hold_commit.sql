@@ -0,0 +1,6 @@
+-- Committed holds stay behind until the retention runs out, so a repeated commit still succeeds
+ALTER TABLE `t_inventory_hold` ADD COLUMN `committed_at` datetime(6) DEFAULT NULL;
+-- MD5 of the client's Idempotency-Key, to hand a retried hold its original hold
+ALTER TABLE `t_inventory_hold` ADD COLUMN `idempotency_key` binary(16) DEFAULT NULL;
+CREATE INDEX `idx_inventory_hold_idempotency_key` ON `t_inventory_hold` (`idempotency_key`);
+CREATE INDEX `idx_inventory_hold_committed_at` ON `t_inventory_hold` (`committed_at`);
@@ -0,0 +1,97 @@
+package com.ctse.microservice.inventoryService;
+
+import com.ctse.microservice.inventoryService.model.Inventory;
+import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import com.ctse.microservice.inventoryService.service.InventoryBucketService;
+import com.ctse.microservice.inventoryService.service.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservation throughput of one contended SKU against its number of bucket rows,
+ * with 64 concurrent writers. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class InventoryBucketBenchmarkTests {
+
+    private static final String SKU_CODE = "bucket_bench_sku";
+    private static final int WRITERS = 64;
+    private static final int RESERVATIONS_PER_WRITER = 200;
+    private static final int INITIAL_STOCK = WRITERS * RESERVATIONS_PER_WRITER / 2;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryBucketService inventoryBucketService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @AfterEach
+    void cleanup() {
+        inventoryBucketService.merge(SKU_CODE);
+        inventoryRepository.findBySkuCode(SKU_CODE).ifPresent(inventoryRepository::delete);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 16, 64})
+    void reservationThroughputByBucketCount(int buckets) throws Exception {
+        inventoryRepository.save(new Inventory(null, SKU_CODE, INITIAL_STOCK));
+        if (buckets > 1) {
+            inventoryBucketService.split(SKU_CODE, buckets);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int attempt = 0; attempt < RESERVATIONS_PER_WRITER; attempt++) {
+                    if (inventoryService.reserve(SKU_CODE, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        int attempts = WRITERS * RESERVATIONS_PER_WRITER;
+        log.info("{} buckets: {} attempts from {} writers in {} ms ({} reservations/s)",
+                buckets, attempts, WRITERS, elapsedNanos / 1_000_000, (long) (attempts / (elapsedNanos / 1e9)));
+
+        // Half of the attempts find the SKU sold out, so every bucket is drained
+        // and the fallbacks have to see that the stock is really gone.
+        assertThat(reserved.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(inventoryBucketService.getAvailable(SKU_CODE)).isZero();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ctse.microservice.inventoryService;
+
+import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds 1M SKUs and compares the stock check latency with and without the
+ * unique sku_code index. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class InventoryLookupBenchmarkTests {
+
+    private static final int ROWS = 1_000_000;
+    private static final String DIGITS = "(SELECT 0 n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 " +
+            "UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 " +
+            "UNION ALL SELECT 8 UNION ALL SELECT 9)";
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        long startedAt = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO t_inventory (sku_code, quantity) " +
+                "SELECT CONCAT('bench_sku_', d1.n + d2.n * 10 + d3.n * 100 + d4.n * 1000 + d5.n * 10000 + d6.n * 100000), 100 " +
+                "FROM " + DIGITS + " d1, " + DIGITS + " d2, " + DIGITS + " d3, " +
+                DIGITS + " d4, " + DIGITS + " d5, " + DIGITS + " d6");
+        log.info("Seeded {} rows in {} ms", ROWS, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @AfterAll
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM t_inventory WHERE sku_code LIKE 'bench_sku_%'");
+    }
+
+    @Test
+    void stockCheckLatencyWithAndWithoutIndex() {
+        long[] indexed = measure(2_000);
+
+        jdbcTemplate.execute("ALTER TABLE t_inventory DROP INDEX uk_inventory_sku_code");
+        long[] scanned;
+        try {
+            scanned = measure(20);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE t_inventory ADD CONSTRAINT uk_inventory_sku_code UNIQUE (sku_code)");
+        }
+
+        log.info("Stock check with index:    p50={} us, p99={} us", percentile(indexed, 50), percentile(indexed, 99));
+        log.info("Stock check without index: p50={} us, p99={} us", percentile(scanned, 50), percentile(scanned, 99));
+        assertThat(percentile(indexed, 50)).isLessThan(percentile(scanned, 50));
+    }
+
+    private long[] measure(int lookups) {
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            String skuCode = "bench_sku_" + ThreadLocalRandom.current().nextInt(ROWS);
+            long startedAt = System.nanoTime();
+            boolean inStock = inventoryRepository.existsBySkuCodeAndQuantityGreaterThanEqual(skuCode, 1);
+            latencies[i] = (System.nanoTime() - startedAt) / 1_000;
+            assertThat(inStock).isTrue();
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+}
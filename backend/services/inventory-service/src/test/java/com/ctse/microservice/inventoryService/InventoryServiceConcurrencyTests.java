@@ -0,0 +1,128 @@
+package com.ctse.microservice.inventoryService;
+
+import com.ctse.microservice.inventoryService.dto.ReservationItem;
+import com.ctse.microservice.inventoryService.model.Inventory;
+import com.ctse.microservice.inventoryService.model.InventoryBucket;
+import com.ctse.microservice.inventoryService.repository.InventoryBucketRepository;
+import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import com.ctse.microservice.inventoryService.service.InventoryBucketService;
+import com.ctse.microservice.inventoryService.service.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@Slf4j
+class InventoryServiceConcurrencyTests {
+
+    private static final String SKU_CODE = "stress_test_sku";
+    private static final int INITIAL_STOCK = 1_000;
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryBucketRepository bucketRepository;
+
+    @Autowired
+    private InventoryBucketService inventoryBucketService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository.save(new Inventory(null, SKU_CODE, INITIAL_STOCK));
+    }
+
+    @AfterEach
+    void cleanup() {
+        inventoryBucketService.delete(SKU_CODE);
+        inventoryRepository.findBySkuCode(SKU_CODE).ifPresent(inventoryRepository::delete);
+    }
+
+    @Test
+    void concurrentReservationsShouldNeverOversell() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                    if (inventoryService.reserve(SKU_CODE, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        // Assert
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        log.info("{} reservation attempts from {} threads in {} ms ({} reservations/s)",
+                attempts, THREADS, elapsedNanos / 1_000_000, (long) (attempts / (elapsedNanos / 1e9)));
+
+        assertThat(reserved.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(inventoryRepository.findBySkuCode(SKU_CODE))
+                .get()
+                .extracting(Inventory::getQuantity)
+                .isEqualTo(0);
+    }
+
+    @Test
+    void reservationSeesASplitMadeByAnotherInstance() {
+        // Written past InventoryBucketService, so this instance's bucket counts do not know the split
+        Inventory row = inventoryRepository.findBySkuCode(SKU_CODE).orElseThrow();
+        row.setQuantity(0);
+        inventoryRepository.save(row);
+        bucketRepository.saveAll(List.of(
+                new InventoryBucket(SKU_CODE, 0, INITIAL_STOCK / 2),
+                new InventoryBucket(SKU_CODE, 1, INITIAL_STOCK / 2)));
+
+        assertThat(inventoryService.reserve(SKU_CODE, 10)).isTrue();
+        assertThat(inventoryBucketService.getAvailable(SKU_CODE)).isEqualTo(INITIAL_STOCK - 10);
+    }
+
+    @Test
+    void batchReservationSeesASplitMadeByAnotherInstance() {
+        Inventory row = inventoryRepository.findBySkuCode(SKU_CODE).orElseThrow();
+        row.setQuantity(0);
+        inventoryRepository.save(row);
+        bucketRepository.saveAll(List.of(
+                new InventoryBucket(SKU_CODE, 0, INITIAL_STOCK / 2),
+                new InventoryBucket(SKU_CODE, 1, INITIAL_STOCK / 2)));
+
+        assertThat(inventoryService.reserveBatch(List.of(new ReservationItem(SKU_CODE, 10))).reserved()).isTrue();
+        assertThat(inventoryBucketService.getAvailable(SKU_CODE)).isEqualTo(INITIAL_STOCK - 10);
+    }
+}
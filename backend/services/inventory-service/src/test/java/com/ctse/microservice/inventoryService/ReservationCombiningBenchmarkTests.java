@@ -0,0 +1,102 @@
+package com.ctse.microservice.inventoryService;
+
+import com.ctse.microservice.inventoryService.model.Inventory;
+import com.ctse.microservice.inventoryService.repository.InventoryRepository;
+import com.ctse.microservice.inventoryService.service.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and p99 latency of 256 concurrent reservations of one SKU, combined
+ * into shared guarded updates or each running its own. Run with
+ * {@code mvn test -Dbenchmark=true}.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ReservationCombiningBenchmarkTests {
+
+    private static final String SKU_CODE = "combining_bench_sku";
+    private static final int WRITERS = 256;
+    private static final int RESERVATIONS_PER_WRITER = 50;
+    private static final int INITIAL_STOCK = WRITERS * RESERVATIONS_PER_WRITER / 2;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @AfterEach
+    void cleanup() {
+        inventoryRepository.findBySkuCode(SKU_CODE).ifPresent(inventoryRepository::delete);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void reservationThroughputWithAndWithoutCombining(boolean combined) throws Exception {
+        inventoryRepository.save(new Inventory(null, SKU_CODE, INITIAL_STOCK));
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            futures.add(executor.submit(() -> {
+                long[] latencies = new long[RESERVATIONS_PER_WRITER];
+                start.await();
+                for (int attempt = 0; attempt < RESERVATIONS_PER_WRITER; attempt++) {
+                    long startedAt = System.nanoTime();
+                    // reserveStock is the path every reservation took before combining
+                    boolean inStock = combined
+                            ? inventoryService.reserve(SKU_CODE, 1)
+                            : inventoryService.reserveStock(SKU_CODE, 1);
+                    latencies[attempt] = System.nanoTime() - startedAt;
+                    if (inStock) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return latencies;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        List<Long> latencies = new ArrayList<>(WRITERS * RESERVATIONS_PER_WRITER);
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                latencies.add(latency);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        latencies.sort(null);
+        long p99 = latencies.get((int) (latencies.size() * 0.99));
+        int attempts = WRITERS * RESERVATIONS_PER_WRITER;
+        log.info("{}: {} attempts from {} writers in {} ms ({} reservations/s, p99 {} ms)",
+                combined ? "combined" : "one update each", attempts, WRITERS, elapsedNanos / 1_000_000,
+                (long) (attempts / (elapsedNanos / 1e9)), p99 / 1_000_000.0);
+
+        // Half of the attempts find the SKU sold out; the stock must be taken exactly once
+        assertThat(reserved.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(inventoryRepository.findBySkuCode(SKU_CODE).orElseThrow().getQuantity()).isZero();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ctse.microservice.inventoryService.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityCodecTests {
+
+    @Test
+    void snapshotRoundTripsThroughFrontCodedDictionary() {
+        String[] skuCodes = {"iphone_15", "iphone_15_pro", "iphone_15_pro_max", "pixel_8", "éclair"};
+        int[] quantities = {0, 127, 128, 1_000_000, 3};
+
+        byte[] encoded = AvailabilityCodec.encodeSnapshot(1_700_000_000_000L, skuCodes, quantities);
+        AvailabilityCodec.Payload payload = AvailabilityCodec.decode(encoded);
+
+        assertThat(payload.isDelta()).isFalse();
+        assertThat(payload.version()).isEqualTo(1_700_000_000_000L);
+        assertThat(payload.skuCodes()).containsExactly(skuCodes);
+        assertThat(payload.quantities()).containsExactly(quantities);
+    }
+
+    @Test
+    void deltaKeepsRemovedSkus() {
+        String[] skuCodes = {"iphone_15", "pixel_8"};
+        int[] quantities = {AvailabilityCodec.REMOVED, 0};
+
+        AvailabilityCodec.Payload payload = AvailabilityCodec.decode(
+                AvailabilityCodec.encodeDelta(41, 42, skuCodes, quantities, skuCodes.length));
+
+        assertThat(payload.isDelta()).isTrue();
+        assertThat(payload.fromVersion()).isEqualTo(41);
+        assertThat(payload.version()).isEqualTo(42);
+        assertThat(payload.skuCodes()).containsExactly(skuCodes);
+        assertThat(payload.quantities()).containsExactly(quantities);
+    }
+}
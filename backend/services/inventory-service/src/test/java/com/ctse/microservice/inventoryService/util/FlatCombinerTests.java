@@ -0,0 +1,50 @@
+package com.ctse.microservice.inventoryService.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlatCombinerTests {
+
+    @Test
+    void everyCallerGetsItsOwnResultFromFewerBatches() throws Exception {
+        AtomicInteger batches = new AtomicInteger();
+        FlatCombiner<String, Integer, Integer> combiner = new FlatCombiner<>(Duration.ofMillis(1), 16,
+                (key, requests) -> {
+                    batches.incrementAndGet();
+                    return requests.stream().map(request -> request * 2).toList();
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int request = i;
+            futures.add(executor.submit(() -> combiner.submit("sku_" + request % 2, request)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).get()).isEqualTo(i * 2);
+        }
+        executor.shutdown();
+
+        assertThat(batches.get()).isLessThan(1000);
+    }
+
+    @Test
+    void requestOnItsOwnDoesNotWaitForTheWindow() {
+        FlatCombiner<String, Integer, Integer> combiner = new FlatCombiner<>(Duration.ofSeconds(5), 16,
+                (key, requests) -> requests);
+
+        long startedAt = System.nanoTime();
+        assertThat(combiner.submit("sku_0", 7)).isEqualTo(7);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,99 @@
+package com.ctse.microservice.inventoryService.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimerWheelTests {
+
+    private final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+    private HashedTimerWheel<String> wheel;
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void timeoutsOfTheSameTickFireInOneBatch() throws InterruptedException {
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(20), 8, batches::add);
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule("hold-" + i, Duration.ofMillis(50));
+        }
+
+        List<String> batch = batches.poll(5, TimeUnit.SECONDS);
+
+        assertThat(batch).hasSize(100);
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void timeoutLongerThanOneTurnWaitsForItsRound() throws InterruptedException {
+        // 4 buckets of 10ms: a 150ms timeout passes its bucket three times before it fires
+        long startedAt = System.nanoTime();
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(10), 4, batches::add);
+        wheel.schedule("late", Duration.ofMillis(150));
+        wheel.schedule("early", Duration.ofMillis(15));
+
+        assertThat(batches.poll(5, TimeUnit.SECONDS)).containsExactly("early");
+        assertThat(wheel.pending()).isEqualTo(1);
+        assertThat(batches.poll(5, TimeUnit.SECONDS)).containsExactly("late");
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+    }
+
+    @Test
+    void timeoutsFireInDeadlineOrderAcrossTicks() throws InterruptedException {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(10), 16, fired::addAll);
+        wheel.schedule("third", Duration.ofMillis(90));
+        wheel.schedule("first", Duration.ofMillis(10));
+        wheel.schedule("second", Duration.ofMillis(50));
+
+        waitFor(() -> fired.size() == 3);
+
+        assertThat(fired).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void nothingFiresOnceStopped() throws InterruptedException {
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(10), 8, batches::add);
+        wheel.schedule("cancelled", Duration.ofMillis(100));
+
+        wheel.stop();
+
+        assertThat(batches.poll(300, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(wheel.pending()).isEqualTo(1);
+    }
+
+    @Test
+    void failingHandlerDoesNotStopTheWheel() throws InterruptedException {
+        Consumer<List<String>> handler = expired -> {
+            if (expired.contains("poison")) {
+                throw new IllegalStateException("Cannot reclaim");
+            }
+            batches.add(expired);
+        };
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(10), 8, handler);
+        wheel.schedule("poison", Duration.ofMillis(10));
+        wheel.schedule("hold", Duration.ofMillis(60));
+
+        assertThat(batches.poll(5, TimeUnit.SECONDS)).containsExactly("hold");
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
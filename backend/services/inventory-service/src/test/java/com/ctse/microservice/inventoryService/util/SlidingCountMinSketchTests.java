@@ -0,0 +1,36 @@
+package com.ctse.microservice.inventoryService.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingCountMinSketchTests {
+
+    @Test
+    void neverUndercountsAndKeepsHeavyHittersApart() {
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(Duration.ofHours(1), 6, 4, 1024);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add("sku_" + i, 1);
+        }
+        sketch.add("iphone_15", 5_000);
+
+        assertThat(sketch.estimate("iphone_15")).isBetween(5_000L, 5_100L);
+        for (int i = 0; i < 10_000; i += 500) {
+            assertThat(sketch.estimate("sku_" + i)).isBetween(1L, 100L);
+        }
+    }
+
+    @Test
+    void forgetsCountsOlderThanTheWindow() throws InterruptedException {
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(Duration.ofMillis(60), 3, 4, 64);
+        sketch.add("iphone_15", 10);
+
+        Thread.sleep(150);
+        sketch.add("pixel_8", 1);
+
+        assertThat(sketch.estimate("iphone_15")).isZero();
+        assertThat(sketch.estimate("pixel_8")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,155 @@
+package com.ctse.microservice.inventoryService.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysTheSummedDeltasOfEverySegment() throws IOException {
+        try (StockJournal journal = new StockJournal(directory, 7)) {
+            journal.append("iphone_15", 1);
+            journal.append("pixel_8", -2);
+            journal.append("iphone_15", 3);
+            assertThat(journal.rotate()).isEqualTo(7);
+            journal.append("iphone_15", 5);
+        }
+
+        SortedMap<Long, Map<String, Long>> segments = StockJournal.readSegments(directory);
+
+        assertThat(segments).containsOnlyKeys(7L, 8L);
+        assertThat(segments.get(7L)).containsExactlyInAnyOrderEntriesOf(Map.of("iphone_15", 4L, "pixel_8", -2L));
+        assertThat(segments.get(8L)).containsExactlyInAnyOrderEntriesOf(Map.of("iphone_15", 5L));
+    }
+
+    @Test
+    void stopsAtATornRecord() throws IOException {
+        try (StockJournal journal = new StockJournal(directory, 0)) {
+            journal.append("iphone_15", 1);
+            journal.append("iphone_15", 10);
+        }
+        Path segment = onlySegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        assertThat(StockJournal.readSegments(directory).get(0L)).containsExactlyEntriesOf(Map.of("iphone_15", 1L));
+    }
+
+    @Test
+    void stopsAtARecordWithABadChecksum() throws IOException {
+        try (StockJournal journal = new StockJournal(directory, 0)) {
+            journal.append("iphone_15", 1);
+            journal.append("iphone_15", 10);
+            journal.append("iphone_15", 100);
+        }
+        Path segment = onlySegment();
+        // crc (4) + length (2) + "iphone_15" (9) + delta (8) per record: flip the second delta
+        long secondDelta = 23 + 15;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(secondDelta + 7);
+            int last = file.read();
+            file.seek(secondDelta + 7);
+            file.write(last ^ 0x01);
+        }
+
+        assertThat(StockJournal.readSegments(directory).get(0L)).containsExactlyEntriesOf(Map.of("iphone_15", 1L));
+    }
+
+    @Test
+    void concurrentAppendsAreAllWritten() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try (StockJournal journal = new StockJournal(directory, 0)) {
+            List<Future<?>> appends = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String skuCode = "sku_" + i % 4;
+                appends.add(executor.submit(() -> {
+                    journal.append(skuCode, 1);
+                    return null;
+                }));
+            }
+            for (Future<?> append : appends) {
+                append.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(StockJournal.readSegments(directory).get(0L))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("sku_0", 250L, "sku_1", 250L, "sku_2", 250L, "sku_3", 250L));
+    }
+
+    @Test
+    void whatIsCountedBeforeARotationIsInTheClosedSegment() throws Exception {
+        AtomicLong counted = new AtomicLong();
+        Map<Long, Long> taken = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (StockJournal journal = new StockJournal(directory, 0)) {
+            List<Future<?>> appends = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                appends.add(executor.submit(() -> {
+                    journal.append("iphone_15", 1, counted::incrementAndGet);
+                    return null;
+                }));
+            }
+            long[] take = new long[1];
+            for (int i = 0; i < 20; i++) {
+                long segment = journal.rotate(() -> take[0] = counted.getAndSet(0));
+                taken.put(segment, take[0]);
+            }
+            for (Future<?> append : appends) {
+                append.get();
+            }
+            taken.put(20L, counted.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        SortedMap<Long, Map<String, Long>> segments = StockJournal.readSegments(directory);
+        taken.forEach((segment, count) ->
+                assertThat(segments.get(segment).getOrDefault("iphone_15", 0L)).as("segment %d", segment).isEqualTo(count));
+    }
+
+    @Test
+    void deletesFlushedSegmentsButNotTheOpenOne() throws IOException {
+        try (StockJournal journal = new StockJournal(directory, 0)) {
+            journal.append("iphone_15", 1);
+            journal.rotate();
+            journal.append("iphone_15", 2);
+            journal.rotate();
+            journal.append("iphone_15", 3);
+
+            journal.deleteUpTo(Long.MAX_VALUE);
+        }
+
+        SortedMap<Long, Map<String, Long>> segments = StockJournal.readSegments(directory);
+        assertThat(segments).containsOnlyKeys(2L);
+        // A restart replays only the segments after the checkpoint of the last flush
+        assertThat(segments.tailMap(1L + 1)).containsOnlyKeys(2L);
+    }
+
+    private Path onlySegment() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.ctse.microservice.orderService.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Hedges calls to the inventory service: a call that has not been answered
+ * after the hedge delay of the {@link InventoryLatencyTracker} is sent again
+ * to the hedge instance, and whichever answer comes first is used. The other
+ * one is closed when it arrives.
+ * <p>
+ * Only calls that are safe to send twice are hedged: GETs and calls with an
+ * Idempotency-Key. Each hedgeable call earns {@code budget} of a hedge, so at
+ * most that share of calls is hedged even when every call is slow.
+ */
+public class HedgingInterceptor implements ClientHttpRequestInterceptor {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    // Hedges saved up by quiet periods, spent by a burst of slow calls
+    private static final double MAX_TOKENS = 10;
+
+    private final ClientHttpRequestFactory requestFactory;
+    private final URI hedgeUri;
+    private final InventoryLatencyTracker latencyTracker;
+    private final double budget;
+    private final Counter hedges;
+    private final Counter hedgesWon;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("inventory-hedge-", 0).factory());
+
+    // Guarded by this
+    private double tokens;
+
+    public HedgingInterceptor(ClientHttpRequestFactory requestFactory, URI hedgeUri,
+                              InventoryLatencyTracker latencyTracker, double budget, MeterRegistry meterRegistry) {
+        this.requestFactory = requestFactory;
+        this.hedgeUri = hedgeUri;
+        this.latencyTracker = latencyTracker;
+        this.budget = budget;
+        this.hedges = Counter.builder("inventory.client.hedges")
+                .description("Calls to the inventory service sent a second time because the first was slow")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("inventory.client.hedges.won")
+                .description("Hedged calls answered by the hedge first")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Optional<Duration> delay = hedgeable(request) ? latencyTracker.hedgeDelay() : Optional.empty();
+        if (delay.isEmpty()) {
+            return timed(() -> execution.execute(request, body));
+        }
+        earnToken();
+
+        CompletableFuture<ClientHttpResponse> primary = attempt(() -> execution.execute(request, body));
+        try {
+            return primary.get(delay.get().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!spendToken()) {
+                return await(primary);
+            }
+            hedges.increment();
+            CompletableFuture<ClientHttpResponse> hedge = attempt(() -> sendHedge(request, body));
+            return await(firstAnswer(primary, hedge));
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.thenAccept(ClientHttpResponse::close);
+            throw new InterruptedIOException("Interrupted while waiting for " + request.getURI());
+        }
+    }
+
+    private static boolean hedgeable(HttpRequest request) {
+        return HttpMethod.GET.equals(request.getMethod()) || request.getHeaders().containsKey(IDEMPOTENCY_KEY);
+    }
+
+    private ClientHttpResponse sendHedge(HttpRequest request, byte[] body) throws IOException {
+        URI uri = UriComponentsBuilder.fromUri(request.getURI())
+                .scheme(hedgeUri.getScheme())
+                .host(hedgeUri.getHost())
+                .port(hedgeUri.getPort())
+                .build(true)
+                .toUri();
+        ClientHttpRequest hedge = requestFactory.createRequest(uri, request.getMethod());
+        hedge.getHeaders().putAll(request.getHeaders());
+        if (body.length > 0) {
+            StreamUtils.copy(body, hedge.getBody());
+        }
+        return hedge.execute();
+    }
+
+    private CompletableFuture<ClientHttpResponse> firstAnswer(CompletableFuture<ClientHttpResponse> primary,
+                                                              CompletableFuture<ClientHttpResponse> hedge) {
+        CompletableFuture<ClientHttpResponse> first = new CompletableFuture<>();
+        AtomicBoolean answered = new AtomicBoolean();
+        AtomicInteger failed = new AtomicInteger();
+        primary.whenComplete(onAnswer(first, answered, failed, false));
+        hedge.whenComplete(onAnswer(first, answered, failed, true));
+        return first;
+    }
+
+    private BiConsumer<ClientHttpResponse, Throwable> onAnswer(CompletableFuture<ClientHttpResponse> first,
+                                                               AtomicBoolean answered, AtomicInteger failed,
+                                                               boolean isHedge) {
+        return (response, failure) -> {
+            if (failure != null) {
+                // Fails only once both attempts have failed
+                if (failed.incrementAndGet() == 2) {
+                    first.completeExceptionally(failure);
+                }
+            } else if (answered.compareAndSet(false, true)) {
+                if (isHedge) {
+                    hedgesWon.increment();
+                }
+                first.complete(response);
+            } else {
+                response.close();
+            }
+        };
+    }
+
+    private interface Call {
+        ClientHttpResponse execute() throws IOException;
+    }
+
+    private CompletableFuture<ClientHttpResponse> attempt(Call call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return timed(call);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private ClientHttpResponse timed(Call call) throws IOException {
+        long startedAt = System.nanoTime();
+        ClientHttpResponse response = call.execute();
+        latencyTracker.record(System.nanoTime() - startedAt);
+        return response;
+    }
+
+    private static ClientHttpResponse await(CompletableFuture<ClientHttpResponse> answer) throws IOException {
+        try {
+            return answer.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            answer.thenAccept(ClientHttpResponse::close);
+            throw new InterruptedIOException("Interrupted while waiting for the inventory service");
+        }
+    }
+
+    private static IOException unwrap(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(cause);
+    }
+
+    private synchronized void earnToken() {
+        tokens = Math.min(MAX_TOKENS, tokens + budget);
+    }
+
+    private synchronized boolean spendToken() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
@@ -1,30 +1,83 @@
 package com.ctse.microservice.orderService.client;
 
+import com.ctse.microservice.orderService.dto.BatchReservationResponse;
+import com.ctse.microservice.orderService.dto.HoldRequest;
+import com.ctse.microservice.orderService.dto.HoldResponse;
+import com.ctse.microservice.orderService.dto.ReservationItem;
+import com.ctse.microservice.orderService.dto.ReservationOutcome;
 import groovy.util.logging.Slf4j;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.service.annotation.DeleteExchange;
 import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 public interface InventoryClient {
 
     Logger log = LoggerFactory.getLogger(InventoryClient.class);
 
-    @GetExchange("/api/inventory/check")
-    @CircuitBreaker(name = "inventory", fallbackMethod = "fallbackMethod")
+    // No fallback: a reservation is permanent, and one that timed out may have landed.
+    // The failure leaves the order PENDING, to be resumed under the same key.
+    @PostExchange("/api/inventory/reserve")
+    @CircuitBreaker(name = "inventory")
     @Retry(name = "inventory")
-    boolean isInStock(@RequestParam String skuCode, @RequestParam Integer quantity);
+    ReservationOutcome reserve(@RequestBody ReservationItem item,
+                               @RequestHeader("Idempotency-Key") String idempotencyKey);
+
+    // Not retried: without an idempotency key a retry after a lost answer reserves the batch twice
+    @PostExchange("/api/inventory/reserve/batch")
+    @CircuitBreaker(name = "inventory", fallbackMethod = "reserveBatchFallbackMethod")
+    BatchReservationResponse reserveBatch(@RequestBody List<ReservationItem> items);
 
-    default boolean fallbackMethod(String skuCode, Integer quantity, Throwable t) {
-        // Fallback logic when the inventory service is unavailable
-        log.info("Cannot get inventory for skuCode: {}, failure reason: {}", skuCode, t.getMessage());
-        return false;
+    default BatchReservationResponse reserveBatchFallbackMethod(List<ReservationItem> items, Throwable t) {
+        log.info("Cannot reserve inventory for {} items, failure reason: {}", items.size(), t.getMessage());
+        return new BatchReservationResponse(false, List.of());
+    }
+
+    @PostExchange("/api/inventory/holds")
+    @CircuitBreaker(name = "inventory", fallbackMethod = "placeHoldFallbackMethod")
+    @Retry(name = "inventory")
+    HoldResponse placeHold(@RequestBody HoldRequest request,
+                           @RequestHeader("Idempotency-Key") String idempotencyKey);
+
+    default HoldResponse placeHoldFallbackMethod(HoldRequest request, String idempotencyKey, Throwable t) {
+        log.info("Cannot hold inventory for skuCode: {}, failure reason: {}", request.skuCode(), t.getMessage());
+        return new HoldResponse(false, null, request.skuCode(), request.quantity(), null);
     }
-}
 
+    // No fallbacks: the caller has to know that the hold was not committed or released
 
+    @PostExchange("/api/inventory/holds/{holdId}/commit")
+    @CircuitBreaker(name = "inventory")
+    @Retry(name = "inventory")
+    void commitHold(@PathVariable UUID holdId);
+
+    // All or nothing: a 404 means one of the holds is gone and none was committed
+    @PostExchange("/api/inventory/holds/commit")
+    @CircuitBreaker(name = "inventory")
+    @Retry(name = "inventory")
+    void commitHolds(@RequestBody List<UUID> holdIds);
 
+    @DeleteExchange("/api/inventory/holds/{holdId}")
+    @CircuitBreaker(name = "inventory")
+    @Retry(name = "inventory")
+    void releaseHold(@PathVariable UUID holdId);
 
+    // Availability mirror: no fallbacks, the mirror keeps what it has and reports its staleness
+
+    @GetExchange("/api/inventory/availability/snapshot")
+    byte[] getAvailabilitySnapshot();
+
+    @GetExchange("/api/inventory/availability/changes")
+    byte[] getAvailabilityChanges(@RequestParam long since);
+}
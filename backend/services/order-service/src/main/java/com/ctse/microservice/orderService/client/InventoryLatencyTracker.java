@@ -0,0 +1,155 @@
+package com.ctse.microservice.orderService.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling latency histogram of single calls to the inventory service,
+ * exported as {@code inventory.client.latency}. Its percentiles over the last
+ * {@code inventory.client.latency.window} set the hedge delay, the response
+ * timeout and the retry backoff. While fewer than {@code min-samples} calls
+ * have been seen within the window, there is no hedging and the configured
+ * maximum timeout and backoff apply.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryLatencyTracker {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.client.latency.window:1m}")
+    private Duration window;
+
+    @Value("${inventory.client.latency.min-samples:100}")
+    private long minSamples;
+
+    @Value("${inventory.client.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${inventory.client.timeout-factor:3}")
+    private double timeoutFactor;
+
+    @Value("${inventory.client.min-response-timeout:250ms}")
+    private Duration minResponseTimeout;
+
+    @Value("${inventory.client.response-timeout:5s}")
+    private Duration maxResponseTimeout;
+
+    @Value("${inventory.client.retry.min-backoff:20ms}")
+    private Duration minBackoff;
+
+    @Value("${inventory.client.retry.max-backoff:5s}")
+    private Duration maxBackoff;
+
+    private record Percentiles(Duration median, Duration hedge, Duration p99) {
+    }
+
+    private record CountAt(long nanos, long count) {
+    }
+
+    private Timer latency;
+    private volatile Percentiles percentiles;
+    // Total call counts seen by refresh, oldest first, to tell how many fall within the window
+    private final Deque<CountAt> counts = new ArrayDeque<>();
+
+    @PostConstruct
+    void register() {
+        latency = Timer.builder("inventory.client.latency")
+                .description("Latency of single calls to the inventory service, hedges included")
+                .publishPercentiles(0.5, hedgePercentile, 0.99)
+                .distributionStatisticExpiry(window)
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+    }
+
+    public void record(long nanos) {
+        latency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.client.latency.refresh-interval:1s}")
+    public synchronized void refresh() {
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        Duration median = percentile(snapshot, 0.5);
+        Duration hedge = percentile(snapshot, hedgePercentile);
+        Duration p99 = percentile(snapshot, 0.99);
+        boolean usable = countInWindow(snapshot.count()) >= minSamples
+                && median.isPositive() && hedge.isPositive() && p99.isPositive();
+        percentiles = usable ? new Percentiles(median, hedge, p99) : null;
+    }
+
+    // The timer's count never expires: subtract the count as it was a window ago
+    private long countInWindow(long count) {
+        long now = System.nanoTime();
+        long since = now - window.toNanos();
+        CountAt base = null;
+        while (!counts.isEmpty() && counts.peekFirst().nanos() <= since) {
+            base = counts.removeFirst();
+        }
+        if (base != null) {
+            // Still the count as it was a window ago for the next refresh
+            counts.addFirst(base);
+        } else {
+            base = counts.peekFirst();
+        }
+        counts.addLast(new CountAt(now, count));
+        return base == null ? count : count - base.count();
+    }
+
+    /**
+     * @return how long to wait for an answer before hedging, empty if there is too little data
+     */
+    public Optional<Duration> hedgeDelay() {
+        Percentiles current = percentiles;
+        return current == null ? Optional.empty() : Optional.of(current.hedge());
+    }
+
+    public Duration responseTimeout() {
+        Percentiles current = percentiles;
+        if (current == null) {
+            return maxResponseTimeout;
+        }
+        Duration timeout = Duration.ofNanos((long) (current.p99().toNanos() * timeoutFactor));
+        return clamp(timeout, minResponseTimeout, maxResponseTimeout);
+    }
+
+    /**
+     * @param attempt the number of attempts made so far, from 1
+     * @return the median latency doubled per attempt, with jitter
+     */
+    public Duration retryBackoff(int attempt) {
+        Percentiles current = percentiles;
+        if (current == null) {
+            return maxBackoff;
+        }
+        long base = Math.max(current.median().toNanos(), minBackoff.toNanos());
+        double jitter = ThreadLocalRandom.current().nextDouble(0.5, 1.5);
+        long backoff = (long) (base * Math.pow(2, Math.min(attempt - 1, 20)) * jitter);
+        return clamp(Duration.ofNanos(backoff), minBackoff, maxBackoff);
+    }
+
+    private static Duration percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (Math.abs(value.percentile() - percentile) < 1e-9) {
+                return Duration.ofNanos((long) value.value(TimeUnit.NANOSECONDS));
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    private static Duration clamp(Duration value, Duration min, Duration max) {
+        return value.compareTo(min) < 0 ? min : value.compareTo(max) > 0 ? max : value;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ctse.microservice.orderService.config;
+
+import com.ctse.microservice.orderService.util.OrderNumberGenerator;
+import com.ctse.microservice.orderService.util.UuidV7OrderNumberGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Configuration
+public class OrderNumberConfig {
+
+    /**
+     * {@code order.number-generator=uuidv7} (default) for time-ordered order
+     * numbers, {@code random} for random UUIDs.
+     */
+    @Bean
+    public OrderNumberGenerator orderNumberGenerator(@Value("${order.number-generator:uuidv7}") String generator) {
+        return switch (generator) {
+            case "uuidv7" -> new UuidV7OrderNumberGenerator();
+            case "random" -> UUID::randomUUID;
+            default -> throw new IllegalArgumentException("Unknown order.number-generator: " + generator);
+        };
+    }
+}
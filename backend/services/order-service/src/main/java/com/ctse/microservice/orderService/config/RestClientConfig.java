@@ -1,11 +1,28 @@
 package com.ctse.microservice.orderService.config;
 
+import com.ctse.microservice.orderService.client.HedgingInterceptor;
 import com.ctse.microservice.orderService.client.InventoryClient;
+import com.ctse.microservice.orderService.client.InventoryLatencyTracker;
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
+import org.apache.hc.core5.http.io.HttpConnectionFactory;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +32,10 @@ import org.springframework.web.client.RestClient;
 import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
 @Configuration
 @RequiredArgsConstructor
 public class RestClientConfig {
@@ -22,32 +43,135 @@ public class RestClientConfig {
     @Value("${inventory.service.url}")
     private String inventoryServiceUrl;
     private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final InventoryLatencyTracker latencyTracker;
+
+    @Value("${inventory.client.max-total:200}")
+    private int maxTotal;
+
+    @Value("${inventory.client.max-per-route:100}")
+    private int maxPerRoute;
+
+    @Value("${inventory.client.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${inventory.client.connection-ttl:5m}")
+    private Duration connectionTtl;
+
+    @Value("${inventory.client.validate-after-inactivity:2s}")
+    private Duration validateAfterInactivity;
+
+    @Value("${inventory.client.keep-alive:30s}")
+    private Duration keepAlive;
+
+    @Value("${inventory.client.idle-eviction:30s}")
+    private Duration idleEviction;
+
+    @Value("${inventory.client.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${inventory.client.hedge.url:}")
+    private String hedgeUrl;
+
+    @Value("${inventory.client.hedge.budget:0.1}")
+    private double hedgeBudget;
 
     @Bean
     public InventoryClient inventoryClient() {
-        RestClient restClient = RestClient.builder()
+        HttpComponentsClientHttpRequestFactory requestFactory = getClientRequestFactory();
+        RestClient.Builder builder = RestClient.builder()
                 .baseUrl(inventoryServiceUrl)
-                .requestFactory(getClientRequestFactory())
-                .observationRegistry(observationRegistry)
-                .build();
+                .requestFactory(requestFactory)
+                .observationRegistry(observationRegistry);
+        if (hedgeEnabled) {
+            // A hedge only helps when it can land on another instance than the slow call
+            if (hedgeUrl.isBlank() || URI.create(hedgeUrl).equals(URI.create(inventoryServiceUrl))) {
+                throw new IllegalStateException("inventory.client.hedge.url must name another inventory instance than inventory.service.url");
+            }
+            builder.requestInterceptor(new HedgingInterceptor(requestFactory, URI.create(hedgeUrl),
+                    latencyTracker, hedgeBudget, meterRegistry));
+        }
+        RestClient restClient = builder.build();
 
         var adapter = RestClientAdapter.create(restClient);
         var factory = HttpServiceProxyFactory.builderFor(adapter).build();
         return factory.createClient(InventoryClient.class);
     }
 
+    /**
+     * Waits between retries of inventory calls for a backoff derived from their
+     * recent latency instead of a fixed wait-duration.
+     */
+    @Bean
+    public RetryConfigCustomizer inventoryRetryCustomizer() {
+        IntervalBiFunction<Object> backoff = (attempt, outcome) -> latencyTracker.retryBackoff(attempt).toMillis();
+        return RetryConfigCustomizer.of("inventory", builder -> builder.intervalBiFunction(backoff));
+    }
+
     private HttpComponentsClientHttpRequestFactory getClientRequestFactory() {
-        // Timeout settings
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout(Timeout.ofSeconds(5))
-                .setResponseTimeout(Timeout.ofSeconds(5))
+        // HttpClient with a pooled, keep-alive connection manager
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager())
+                // Reuse a connection for as long as the server allows, but no longer than keep-alive
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue offered = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    TimeValue limit = TimeValue.of(keepAlive);
+                    return TimeValue.isPositive(offered) && offered.compareTo(limit) < 0 ? offered : limit;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
                 .build();
 
-        // HttpClient with config
-        CloseableHttpClient httpClient = HttpClients.custom()
-                .setDefaultRequestConfig(requestConfig)
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        // Response timeout from the recent latency of the inventory service, per request
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.custom()
+                    .setResponseTimeout(Timeout.of(latencyTracker.responseTimeout()))
+                    .build());
+            return context;
+        });
+        return requestFactory;
+    }
+
+    /**
+     * Connection pool to the inventory service. Leased, pending and available
+     * connections are exported as {@code inventory.client.pool.*} gauges and new
+     * connections are counted, so pool saturation and connection churn show up
+     * before they turn into tail latency.
+     */
+    private PoolingHttpClientConnectionManager connectionManager() {
+        Counter created = Counter.builder("inventory.client.connections.created")
+                .description("Connections opened to the inventory service")
+                .register(meterRegistry);
+        HttpConnectionFactory<ManagedHttpClientConnection> connectionFactory = socket -> {
+            created.increment();
+            return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+        };
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setConnectionFactory(connectionFactory)
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                        .build())
                 .build();
 
-        return new HttpComponentsClientHttpRequestFactory(httpClient);
+        registerPoolGauge(connectionManager, "leased", "Connections in use", PoolStats::getLeased);
+        registerPoolGauge(connectionManager, "pending", "Requests waiting for a connection", PoolStats::getPending);
+        registerPoolGauge(connectionManager, "available", "Idle connections kept alive", PoolStats::getAvailable);
+        registerPoolGauge(connectionManager, "max", "Maximum connections", PoolStats::getMax);
+        return connectionManager;
+    }
+
+    private void registerPoolGauge(PoolingHttpClientConnectionManager connectionManager, String name,
+                                   String description, ToDoubleFunction<PoolStats> stat) {
+        Gauge.builder("inventory.client.pool." + name, connectionManager, manager -> stat.applyAsDouble(manager.getTotalStats()))
+                .description(description)
+                .baseUnit("connections")
+                .register(meterRegistry);
     }
 }
@@ -1,12 +1,21 @@
 package com.ctse.microservice.orderService.controller;
 
+import com.ctse.microservice.orderService.dto.OrderPage;
 import com.ctse.microservice.orderService.dto.OrderRequest;
+import com.ctse.microservice.orderService.dto.OrderResponse;
+import com.ctse.microservice.orderService.dto.OrderStatusResponse;
+import com.ctse.microservice.orderService.model.OrderStatus;
 import com.ctse.microservice.orderService.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.Instant;
+
 @RestController
 @RequestMapping("/api/order")
 @RequiredArgsConstructor
@@ -15,14 +24,43 @@ public class OrderController {
 
     private final OrderService orderService;
 
-    // This endpoint is used to place an order
+    // This endpoint is used to place an order. With "Prefer: respond-async" the
+    // order is accepted straight away and processed in the background.
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    private String placeOrder(@RequestBody OrderRequest orderRequest){
+    private ResponseEntity<?> placeOrder(@RequestBody OrderRequest orderRequest,
+                                         @RequestHeader(value = "Prefer", required = false) String prefer){
         log.info("Order request received: {}", orderRequest);
+        if (prefer != null && prefer.contains("respond-async")) {
+            String orderNumber = orderService.acceptOrder(orderRequest);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/order/" + orderNumber + "/status"))
+                    .header("Preference-Applied", "respond-async")
+                    .body(new OrderStatusResponse(orderNumber, OrderStatus.PENDING, null));
+        }
         orderService.placeOrder(orderRequest);
-        return "Order Placed Successfully";
+        return ResponseEntity.status(HttpStatus.CREATED).body("Order Placed Successfully");
+    }
+
+    @GetMapping("/{orderNumber}/status")
+    public OrderStatusResponse getOrderStatus(@PathVariable String orderNumber) {
+        return orderService.getStatus(orderNumber);
+    }
+
+    @GetMapping("/{orderNumber}")
+    public OrderResponse getOrder(@PathVariable String orderNumber) {
+        return orderService.getOrder(orderNumber);
+    }
+
+    // Lists orders oldest first; follow the "next" cursor of each page with ?after=
+
+    @GetMapping
+    public OrderPage listOrders(@RequestParam(required = false) String skuCode,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(required = false) Integer limit) {
+        return orderService.listOrders(skuCode, from, to, after, limit);
     }
 
 }
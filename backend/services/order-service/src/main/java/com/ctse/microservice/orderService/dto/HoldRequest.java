@@ -0,0 +1,4 @@
+package com.ctse.microservice.orderService.dto;
+
+public record HoldRequest(String skuCode, Integer quantity, Long ttlSeconds) {
+}
@@ -0,0 +1,7 @@
+package com.ctse.microservice.orderService.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record HoldResponse(boolean reserved, UUID holdId, String skuCode, Integer quantity, Instant expiresAt) {
+}
@@ -0,0 +1,10 @@
+package com.ctse.microservice.orderService.dto;
+
+import java.util.List;
+
+/**
+ * One page of orders, oldest first. Pass {@code next} as {@code after} to get
+ * the following page; it is null on the last page.
+ */
+public record OrderPage(List<OrderSummary> orders, String next) {
+}
@@ -1,8 +1,24 @@
 package com.ctse.microservice.orderService.dto;
 
 import java.math.BigDecimal;
+import java.util.List;
 
-public record OrderRequest(Long id, String orderNumber, String skuCode, BigDecimal price, Integer quantity, UserDetails userDetails) {
+/**
+ * An order of one SKU ({@code skuCode}, {@code price}, {@code quantity}) or of
+ * several line items ({@code lines}).
+ */
+public record OrderRequest(Long id, String orderNumber, String skuCode, BigDecimal price, Integer quantity,
+                           List<Line> lines, UserDetails userDetails) {
     public record UserDetails(String email, String firstName, String lastName) {
     }
+
+    public record Line(String skuCode, BigDecimal price, Integer quantity) {
+    }
+
+    /**
+     * @return the line items, or the single SKU as one line
+     */
+    public List<Line> effectiveLines() {
+        return lines == null || lines.isEmpty() ? List.of(new Line(skuCode, price, quantity)) : lines;
+    }
 }
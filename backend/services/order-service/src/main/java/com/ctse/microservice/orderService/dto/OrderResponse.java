@@ -0,0 +1,13 @@
+package com.ctse.microservice.orderService.dto;
+
+import com.ctse.microservice.orderService.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record OrderResponse(String orderNumber, OrderStatus status, String failureReason, BigDecimal price,
+                            Integer quantity, Instant createdAt, List<Line> lines) {
+    public record Line(Integer lineNumber, String skuCode, BigDecimal price, Integer quantity) {
+    }
+}
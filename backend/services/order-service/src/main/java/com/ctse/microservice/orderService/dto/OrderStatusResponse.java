@@ -0,0 +1,6 @@
+package com.ctse.microservice.orderService.dto;
+
+import com.ctse.microservice.orderService.model.OrderStatus;
+
+public record OrderStatusResponse(String orderNumber, OrderStatus status, String failureReason) {
+}
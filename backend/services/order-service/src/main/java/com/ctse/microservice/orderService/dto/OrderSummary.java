@@ -0,0 +1,13 @@
+package com.ctse.microservice.orderService.dto;
+
+import com.ctse.microservice.orderService.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * An order in a listing; {@code skuCode} is only set for single-line orders.
+ */
+public record OrderSummary(String orderNumber, OrderStatus status, String skuCode, BigDecimal price,
+                           Integer quantity, Instant createdAt) {
+}
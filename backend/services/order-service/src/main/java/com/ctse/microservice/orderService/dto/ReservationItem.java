@@ -0,0 +1,4 @@
+package com.ctse.microservice.orderService.dto;
+
+public record ReservationItem(String skuCode, Integer quantity) {
+}
@@ -0,0 +1,4 @@
+package com.ctse.microservice.orderService.dto;
+
+public record ReservationOutcome(String skuCode, Integer quantity, boolean available) {
+}
@@ -1,5 +1,6 @@
 package com.ctse.microservice.orderService.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -24,4 +25,55 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(OrderNotFoundException.class)
+    public ResponseEntity<?> handleOrderNotFound(OrderNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                Map.of(
+                        "timestamp", LocalDateTime.now().toString(),
+                        "status", 404,
+                        "error", "Not Found",
+                        "message", ex.getMessage()
+                )
+        );
+    }
+
+    @ExceptionHandler(InvalidOrderQueryException.class)
+    public ResponseEntity<?> handleInvalidQuery(InvalidOrderQueryException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                Map.of(
+                        "timestamp", LocalDateTime.now().toString(),
+                        "status", 400,
+                        "error", "Bad Request",
+                        "message", ex.getMessage(),
+                        "path", "/api/order"
+                )
+        );
+    }
+
+    @ExceptionHandler(InvalidOrderRequestException.class)
+    public ResponseEntity<?> handleInvalidRequest(InvalidOrderRequestException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                Map.of(
+                        "timestamp", LocalDateTime.now().toString(),
+                        "status", 400,
+                        "error", "Bad Request",
+                        "message", ex.getMessage(),
+                        "path", "/api/order"
+                )
+        );
+    }
+
+    @ExceptionHandler(OrderServiceOverloadedException.class)
+    public ResponseEntity<?> handleOverloaded(OrderServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "timestamp", LocalDateTime.now().toString(),
+                        "status", 503,
+                        "error", "Service Unavailable",
+                        "message", ex.getMessage(),
+                        "path", "/api/order"
+                ));
+    }
+
 }
@@ -0,0 +1,7 @@
+package com.ctse.microservice.orderService.exception;
+
+public class InvalidOrderQueryException extends RuntimeException {
+    public InvalidOrderQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ctse.microservice.orderService.exception;
+
+public class InvalidOrderRequestException extends RuntimeException {
+    public InvalidOrderRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ctse.microservice.orderService.exception;
+
+public class OrderNotFoundException extends RuntimeException {
+    public OrderNotFoundException(String orderNumber) {
+        super("Order '" + orderNumber + "' not found.");
+    }
+}
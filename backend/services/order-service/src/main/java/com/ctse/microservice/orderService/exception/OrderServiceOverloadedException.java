@@ -0,0 +1,11 @@
+package com.ctse.microservice.orderService.exception;
+
+public class OrderServiceOverloadedException extends RuntimeException {
+    public OrderServiceOverloadedException() {
+        super("Too many orders waiting to be processed, retry later.");
+    }
+
+    public OrderServiceOverloadedException(String message) {
+        super(message);
+    }
+}
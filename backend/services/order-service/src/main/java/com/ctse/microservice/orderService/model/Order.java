@@ -1,8 +1,16 @@
 package com.ctse.microservice.orderService.model;
 
+import com.ctse.microservice.orderService.util.OrderNumberConverter;
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -10,6 +18,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name= "t_orders")
@@ -19,10 +30,25 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
+    @GeneratedValue(strategy = jakarta.persistence.GenerationType.SEQUENCE, generator = "t_orders_seq")
+    @SequenceGenerator(name = "t_orders_seq", sequenceName = "t_orders_seq", allocationSize = 50)
     private Long id;
+    @Convert(converter = OrderNumberConverter.class)
     private String orderNumber;
     private String skuCode;
     private BigDecimal price;
     private Integer quantity;
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+    private String failureReason;
+    private Instant createdAt;
+    private String email;
+    private String firstName;
+    private String lastName;
+    // When a stalled PENDING order was last picked up again, see OrderService.resumeStalledOrders
+    private Instant resumedAt;
+    private int resumeAttempts;
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("lineNumber")
+    private List<OrderLine> lines = new ArrayList<>();
 }
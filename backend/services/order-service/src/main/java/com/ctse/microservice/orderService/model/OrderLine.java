@@ -0,0 +1,39 @@
+package com.ctse.microservice.orderService.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "t_order_line")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderLine {
+    @Id
+    @GeneratedValue(strategy = jakarta.persistence.GenerationType.SEQUENCE, generator = "t_order_line_seq")
+    @SequenceGenerator(name = "t_order_line_seq", sequenceName = "t_order_line_seq", allocationSize = 50)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id")
+    private Order order;
+    private Integer lineNumber;
+    private String skuCode;
+    private BigDecimal price;
+    private Integer quantity;
+    // The order's, so orders of one SKU can be listed from this table alone
+    private Instant createdAt;
+}
@@ -0,0 +1,37 @@
+package com.ctse.microservice.orderService.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An OrderPlacedEvent waiting to be published, with the B3 trace header of the
+ * request that placed the order.
+ */
+@Entity
+@Table(name = "t_order_outbox")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderOutbox {
+    @Id
+    @GeneratedValue(strategy = jakarta.persistence.GenerationType.SEQUENCE, generator = "t_order_outbox_seq")
+    @SequenceGenerator(name = "t_order_outbox_seq", sequenceName = "t_order_outbox_seq", allocationSize = 50)
+    private Long id;
+    private String orderNumber;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String b3;
+    private Instant createdAt;
+    private Instant sentAt;
+}
@@ -0,0 +1,12 @@
+package com.ctse.microservice.orderService.model;
+
+public enum OrderStatus {
+    /** Accepted, waiting for its stock to be reserved */
+    PENDING,
+    /** Stock reserved and the order placed event sent */
+    PLACED,
+    /** Not enough stock */
+    REJECTED,
+    /** Processing failed, e.g. the inventory service could not be reached */
+    FAILED
+}
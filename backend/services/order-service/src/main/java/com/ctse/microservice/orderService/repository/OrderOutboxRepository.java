@@ -0,0 +1,35 @@
+package com.ctse.microservice.orderService.repository;
+
+import com.ctse.microservice.orderService.model.OrderOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutbox, Long> {
+
+    /**
+     * Locks the oldest unsent events, skipping those another relay has locked,
+     * so several instances can drain the outbox side by side.
+     */
+    @Query(value = "SELECT * FROM t_order_outbox WHERE sent_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OrderOutbox> lockUnsent(@Param("limit") int limit);
+
+    Optional<OrderOutbox> findFirstBySentAtIsNullOrderByIdAsc();
+
+    @Modifying
+    @Query("update OrderOutbox o set o.sentAt = :sentAt where o.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Instant sentAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM t_order_outbox WHERE sent_at < :before LIMIT :limit", nativeQuery = true)
+    int deleteSent(@Param("before") Instant before, @Param("limit") int limit);
+}
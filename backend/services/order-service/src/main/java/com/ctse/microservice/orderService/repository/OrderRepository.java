@@ -1,8 +1,79 @@
 package com.ctse.microservice.orderService.repository;
 
 import com.ctse.microservice.orderService.model.Order;
+import com.ctse.microservice.orderService.model.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    /**
+     * Orders created before {@code to} that come after the cursor in
+     * (created_at, id) order: a range scan of ix_orders_created_at.
+     */
+    String PAGE_QUERY = """
+            SELECT * FROM t_orders
+            WHERE created_at < :to
+              AND (created_at > :afterCreatedAt OR (created_at = :afterCreatedAt AND id > :afterId))
+            ORDER BY created_at, id
+            LIMIT :limit""";
+
+    /**
+     * Orders with a line of the SKU, in the same order: a range scan of
+     * ix_order_line_sku_created_at, then a primary key lookup per order. An
+     * order with two lines of the SKU comes back twice, one after the other.
+     */
+    String SKU_PAGE_QUERY = """
+            SELECT o.* FROM t_order_line l JOIN t_orders o ON o.id = l.order_id
+            WHERE l.sku_code = :skuCode
+              AND l.created_at < :to
+              AND (l.created_at > :afterCreatedAt OR (l.created_at = :afterCreatedAt AND l.order_id > :afterId))
+            ORDER BY l.created_at, l.order_id
+            LIMIT :limit""";
+
+    Optional<Order> findByOrderNumber(String orderNumber);
+
+    @EntityGraph(attributePaths = "lines")
+    Optional<Order> findWithLinesByOrderNumber(String orderNumber);
+
+    /**
+     * Orders in the status that nobody has touched since {@code before}, least
+     * recently touched first.
+     */
+    @Query("""
+            select o.orderNumber from Order o
+            where o.status = :status and coalesce(o.resumedAt, o.createdAt) < :before
+            order by coalesce(o.resumedAt, o.createdAt)""")
+    List<String> findStalled(@Param("status") OrderStatus status, @Param("before") Instant before, Limit limit);
+
+    /**
+     * Takes a stalled order over, so only one instance resumes it, and counts
+     * the attempt.
+     * @return 0 if it was taken over or has moved on since it was found
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update Order o set o.resumedAt = :now, o.resumeAttempts = o.resumeAttempts + 1
+            where o.orderNumber = :orderNumber and o.status = :status
+              and coalesce(o.resumedAt, o.createdAt) < :before""")
+    int claimStalled(@Param("orderNumber") String orderNumber, @Param("status") OrderStatus status,
+                     @Param("before") Instant before, @Param("now") Instant now);
+
+    @Query(value = PAGE_QUERY, nativeQuery = true)
+    List<Order> findPage(@Param("afterCreatedAt") Instant afterCreatedAt, @Param("afterId") long afterId,
+                         @Param("to") Instant to, @Param("limit") int limit);
+
+    @Query(value = SKU_PAGE_QUERY, nativeQuery = true)
+    List<Order> findPageBySkuCode(@Param("skuCode") String skuCode, @Param("afterCreatedAt") Instant afterCreatedAt,
+                                  @Param("afterId") long afterId, @Param("to") Instant to, @Param("limit") int limit);
 }
@@ -0,0 +1,124 @@
+package com.ctse.microservice.orderService.service;
+
+import com.ctse.microservice.orderService.client.InventoryClient;
+import com.ctse.microservice.orderService.dto.OrderRequest;
+import com.ctse.microservice.orderService.util.AvailabilityCodec;
+import com.ctse.microservice.orderService.util.AvailabilityTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Local copy of the availability snapshot of the inventory service: one
+ * snapshot download, then only the changes since the version held, every
+ * {@code order.availability-mirror.refresh-interval}. Orders for a SKU the
+ * mirror knows to be at zero are rejected without a call to the inventory
+ * service; every other order still reserves its stock there, so the mirror
+ * can only save calls, never oversell.
+ * <p>
+ * A mirror older than {@code max-staleness} is not trusted, so a stuck refresh
+ * only costs the saved calls. Its age is exported as
+ * {@code inventory.mirror.staleness}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityMirror {
+    private final InventoryClient inventoryClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${order.availability-mirror.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.availability-mirror.max-staleness:30s}")
+    private Duration maxStaleness;
+
+    private volatile AvailabilityTable table = AvailabilityTable.EMPTY;
+    // System.nanoTime() of the last successful refresh, or of the start before the first one
+    private volatile long refreshedAt = System.nanoTime();
+    private boolean failing;
+    private Counter shortCircuits;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("inventory.mirror.staleness", this, mirror -> mirror.staleness().toMillis() / 1000.0)
+                .description("Time since the availability mirror was last refreshed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("inventory.mirror.skus", this, mirror -> mirror.table.size())
+                .description("SKUs in the availability mirror")
+                .register(meterRegistry);
+        shortCircuits = Counter.builder("inventory.mirror.short-circuits")
+                .description("Orders rejected as out of stock by the mirror without calling the inventory service")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.availability-mirror.refresh-interval:2s}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            AvailabilityTable current = table;
+            table = current == AvailabilityTable.EMPTY ? loadSnapshot() : applyChanges(current);
+            refreshedAt = System.nanoTime();
+            if (failing) {
+                log.info("Availability mirror refreshed again at version {}", table.getVersion());
+                failing = false;
+            }
+        } catch (RuntimeException e) {
+            if (!failing) {
+                log.warn("Cannot refresh the availability mirror, it is {} old", staleness(), e);
+                failing = true;
+            }
+        }
+    }
+
+    /**
+     * @return the first SKU of the lines that is known to be out of stock,
+     * empty if the inventory service has to be asked
+     */
+    public Optional<String> findOutOfStock(List<OrderRequest.Line> lines) {
+        AvailabilityTable current = table;
+        if (!enabled || current == AvailabilityTable.EMPTY || staleness().compareTo(maxStaleness) > 0) {
+            return Optional.empty();
+        }
+        for (OrderRequest.Line line : lines) {
+            if (current.quantityOf(line.skuCode()) == 0) {
+                shortCircuits.increment();
+                return Optional.of(line.skuCode());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private AvailabilityTable loadSnapshot() {
+        AvailabilityTable snapshot = AvailabilityTable.of(AvailabilityCodec.decode(inventoryClient.getAvailabilitySnapshot()));
+        log.info("Availability mirror loaded version {} with {} SKUs", snapshot.getVersion(), snapshot.size());
+        return snapshot;
+    }
+
+    private AvailabilityTable applyChanges(AvailabilityTable current) {
+        try {
+            return current.apply(AvailabilityCodec.decode(inventoryClient.getAvailabilityChanges(current.getVersion())));
+        } catch (HttpClientErrorException.Gone | IllegalArgumentException e) {
+            log.info("Changes since version {} unusable, reloading the availability mirror", current.getVersion());
+            return loadSnapshot();
+        }
+    }
+
+    private Duration staleness() {
+        return Duration.ofNanos(System.nanoTime() - refreshedAt);
+    }
+}
@@ -0,0 +1,193 @@
+package com.ctse.microservice.orderService.service;
+
+import brave.Span;
+import brave.Tracer;
+import com.ctse.microservice.orderService.client.InventoryClient;
+import com.ctse.microservice.orderService.dto.HoldRequest;
+import com.ctse.microservice.orderService.dto.HoldResponse;
+import com.ctse.microservice.orderService.dto.OrderRequest;
+import com.ctse.microservice.orderService.dto.ReservationItem;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reserves the stock of every line of an order. A single line is reserved with
+ * the order number as idempotency key. Several lines are held in parallel, one
+ * virtual thread each, keyed by order number and line number: the first
+ * rejected line fails the order straight away, every hold placed so far is
+ * released and lines still in flight release their own hold when it comes
+ * back. Once all lines are held, and the caller has saved the order, the holds
+ * are committed together with {@link #commit}.
+ * <p>
+ * Every call can be repeated: holding the lines of an order again gets the
+ * same holds back, and committing committed holds succeeds.
+ * <p>
+ * This is the fork, fail-fast and join shape of structured concurrency, built
+ * from an ExecutorCompletionService because StructuredTaskScope is still a
+ * preview API in Java 21.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderLineReserver {
+    private final InventoryClient inventoryClient;
+    private final Tracer tracer;
+
+    @Value("${order.lines.hold-ttl:5m}")
+    private Duration holdTtl;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("order-line-", 0).factory());
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * The outcome of {@link #reserve}: the SKU of the first rejected line, or
+     * the holds still to be committed, none for a single line.
+     */
+    public record Reservation(Optional<String> rejected, List<HoldResponse> holds) {
+    }
+
+    /**
+     * @return the rejected SKU, or the holds to commit once the order is saved
+     * @throws RuntimeException if a line could not be held, or a single line could
+     * not be reserved; only an answer of the inventory service rejects a line
+     */
+    public Reservation reserve(String orderNumber, List<OrderRequest.Line> lines) {
+        if (lines.size() == 1) {
+            OrderRequest.Line line = lines.getFirst();
+            // The order number doubles as the idempotency key, so retries of the
+            // stock call never reserve the same order twice
+            boolean reserved = inventoryClient.reserve(
+                    new ReservationItem(line.skuCode(), line.quantity()), orderNumber).available();
+            return new Reservation(reserved ? Optional.empty() : Optional.of(line.skuCode()), List.of());
+        }
+
+        LineHolds holds = new LineHolds();
+        CompletionService<HoldResponse> completion = new ExecutorCompletionService<>(executor);
+        Span span = tracer.currentSpan();
+        List<Future<HoldResponse>> futures = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            OrderRequest.Line line = lines.get(i);
+            String idempotencyKey = orderNumber + ":" + (i + 1);
+            futures.add(completion.submit(inTrace(span, () -> holds.hold(line, idempotencyKey))));
+        }
+
+        String rejected = null;
+        RuntimeException failure = null;
+        for (int i = 0; i < lines.size() && rejected == null && failure == null; i++) {
+            try {
+                HoldResponse hold = completion.take().get();
+                if (!hold.reserved()) {
+                    rejected = hold.skuCode();
+                }
+            } catch (ExecutionException e) {
+                failure = e.getCause() instanceof RuntimeException runtime ? runtime
+                        : new IllegalStateException("Holding the stock of order " + orderNumber + " failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new IllegalStateException("Interrupted while holding the stock of order " + orderNumber, e);
+            }
+        }
+
+        if (rejected != null || failure != null) {
+            // Not interrupted: a hold call cut off mid-flight could leave a hold nobody
+            // knows about until it expires, while a finished one releases itself
+            futures.forEach(future -> future.cancel(false));
+            List<HoldResponse> placed = holds.close();
+            log.info("Order {} not reserved, releasing {} holds", orderNumber, placed.size());
+            placed.forEach(this::release);
+            if (failure != null) {
+                throw failure;
+            }
+            return new Reservation(Optional.of(rejected), List.of());
+        }
+        return new Reservation(Optional.empty(), holds.close());
+    }
+
+    /**
+     * Commits the holds of a reservation in one call, all or none of them.
+     * @return false if a hold had expired, in which case the others are released
+     * @throws RuntimeException if it is unknown whether the holds were committed;
+     * committing them again is safe
+     */
+    public boolean commit(String orderNumber, Reservation reservation) {
+        if (reservation.holds().isEmpty()) {
+            return true;
+        }
+        try {
+            inventoryClient.commitHolds(reservation.holds().stream().map(HoldResponse::holdId).toList());
+            return true;
+        } catch (HttpClientErrorException.NotFound e) {
+            log.warn("Holds of order {} expired before they were committed, releasing them", orderNumber);
+            reservation.holds().forEach(this::release);
+            return false;
+        }
+    }
+
+    // A hold that cannot be released expires on its own after order.lines.hold-ttl
+    private void release(HoldResponse hold) {
+        try {
+            inventoryClient.releaseHold(hold.holdId());
+        } catch (RuntimeException e) {
+            log.warn("Cannot release hold {} of SKU {}, it expires in {}", hold.holdId(), hold.skuCode(), holdTtl, e);
+        }
+    }
+
+    private <T> Callable<T> inTrace(Span span, Callable<T> task) {
+        return () -> {
+            try (var scope = tracer.withSpanInScope(span)) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * The holds of one order. After {@link #close()} a line that comes back
+     * with a hold releases it itself, so no hold is left behind.
+     */
+    private class LineHolds {
+        private final List<HoldResponse> placed = new ArrayList<>();
+        private boolean closed;
+
+        HoldResponse hold(OrderRequest.Line line, String idempotencyKey) {
+            HoldResponse hold = inventoryClient.placeHold(
+                    new HoldRequest(line.skuCode(), line.quantity(), holdTtl.toSeconds()), idempotencyKey);
+            if (!hold.reserved()) {
+                return hold;
+            }
+            synchronized (this) {
+                if (!closed) {
+                    placed.add(hold);
+                    return hold;
+                }
+            }
+            release(hold);
+            return hold;
+        }
+
+        synchronized List<HoldResponse> close() {
+            closed = true;
+            return List.copyOf(placed);
+        }
+    }
+}
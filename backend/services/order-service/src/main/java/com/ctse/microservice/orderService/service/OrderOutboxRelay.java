@@ -0,0 +1,160 @@
+package com.ctse.microservice.orderService.service;
+
+import com.ctse.microservice.order.event.OrderPlacedEvent;
+import com.ctse.microservice.orderService.model.OrderOutbox;
+import com.ctse.microservice.orderService.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the events of t_order_outbox to Kafka. Each batch is locked with
+ * SKIP LOCKED, sent without waiting between records, and marked sent with one
+ * update once the broker has acknowledged all of it. A batch that fails stays
+ * unsent and is retried, so delivery is at least once; consumers tell
+ * duplicates apart by order number.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderOutboxRelay {
+    private static final String TOPIC = "order-placed";
+
+    private final OrderOutboxRepository outboxRepository;
+    private final KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${order.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.outbox.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    @Value("${order.outbox.retention:1d}")
+    private Duration retention;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private Counter published;
+    private Counter failedBatches;
+    private Timer relayTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("orders.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest unsent event in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        published = Counter.builder("orders.outbox.published")
+                .description("Events published from the outbox")
+                .register(meterRegistry);
+        failedBatches = Counter.builder("orders.outbox.failed-batches")
+                .description("Outbox batches rolled back to be sent again")
+                .register(meterRegistry);
+        relayTimer = Timer.builder("orders.outbox.relay")
+                .description("Time taken to publish one batch of the outbox")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval:200ms}")
+    public void relay() {
+        Integer sent;
+        try {
+            do {
+                sent = relayTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+                published.increment(sent == null ? 0 : sent);
+            } while (sent != null && sent == batchSize);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            throw e;
+        } finally {
+            // Also while publishing fails, when the lag is what tells the outage apart
+            refreshLag();
+        }
+    }
+
+    private void refreshLag() {
+        try {
+            lagMillis.set(outboxRepository.findFirstBySentAtIsNullOrderByIdAsc()
+                    .map(oldest -> Duration.between(oldest.getCreatedAt(), Instant.now()).toMillis())
+                    .orElse(0L));
+        } catch (RuntimeException e) {
+            log.warn("Cannot measure the outbox lag", e);
+        }
+    }
+
+    /**
+     * Deletes sent events older than {@code order.outbox.retention}, in small
+     * batches.
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.cleanup-interval:1m}")
+    public void purgeSent() {
+        Instant before = Instant.now().minus(retention);
+        int deleted;
+        do {
+            deleted = outboxRepository.deleteSent(before, batchSize);
+        } while (deleted == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OrderOutbox> events = outboxRepository.lockUnsent(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<CompletableFuture<SendResult<String, OrderPlacedEvent>>> sends = new ArrayList<>(events.size());
+        for (OrderOutbox event : events) {
+            sends.add(kafkaTemplate.send(toRecord(event)));
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing the outbox", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Rolls back, so the whole batch is sent again
+            throw new IllegalStateException("Publishing " + events.size() + " outbox events failed", e);
+        }
+        outboxRepository.markSent(events.stream().map(OrderOutbox::getId).toList(), Instant.now());
+        log.debug("Published {} outbox events", events.size());
+        return events.size();
+    }
+
+    private static ProducerRecord<String, OrderPlacedEvent> toRecord(OrderOutbox event) {
+        OrderPlacedEvent orderPlacedEvent = new OrderPlacedEvent();
+        orderPlacedEvent.setOrderNumber(event.getOrderNumber());
+        orderPlacedEvent.setEmail(event.getEmail());
+        orderPlacedEvent.setFirstName(event.getFirstName());
+        orderPlacedEvent.setLastName(event.getLastName());
+
+        ProducerRecord<String, OrderPlacedEvent> record =
+                new ProducerRecord<>(TOPIC, event.getOrderNumber(), orderPlacedEvent);
+        if (event.getB3() != null) {
+            record.headers().add(new RecordHeader("b3", event.getB3().getBytes(StandardCharsets.UTF_8)));
+        }
+        return record;
+    }
+}
@@ -1,23 +1,57 @@
 package com.ctse.microservice.orderService.service;
 
 import brave.Tracer;
-import com.ctse.microservice.orderService.client.InventoryClient;
+import com.ctse.microservice.orderService.dto.OrderPage;
 import com.ctse.microservice.orderService.dto.OrderRequest;
-import com.ctse.microservice.order.event.OrderPlacedEvent;
+import com.ctse.microservice.orderService.dto.OrderResponse;
+import com.ctse.microservice.orderService.dto.OrderStatusResponse;
+import com.ctse.microservice.orderService.dto.OrderSummary;
+import com.ctse.microservice.orderService.exception.InvalidOrderQueryException;
+import com.ctse.microservice.orderService.exception.InvalidOrderRequestException;
+import com.ctse.microservice.orderService.exception.OrderNotFoundException;
+import com.ctse.microservice.orderService.exception.OrderServiceOverloadedException;
 import com.ctse.microservice.orderService.exception.ProductOutOfStockException;
 import com.ctse.microservice.orderService.model.Order;
+import com.ctse.microservice.orderService.model.OrderLine;
+import com.ctse.microservice.orderService.model.OrderOutbox;
+import com.ctse.microservice.orderService.model.OrderStatus;
 import com.ctse.microservice.orderService.repository.OrderRepository;
+import com.ctse.microservice.orderService.util.GradientConcurrencyLimiter;
+import com.ctse.microservice.orderService.util.OrderCursor;
+import com.ctse.microservice.orderService.util.OrderNumberConverter;
+import com.ctse.microservice.orderService.util.OrderNumberGenerator;
 import groovy.util.logging.Slf4j;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.header.internals.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
-import java.nio.charset.StandardCharsets;
-import java.util.UUID;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -26,46 +60,429 @@ public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
     private final OrderRepository orderRepository;
-    private final InventoryClient inventoryClient;
-    private final KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
+    private final OrderLineReserver orderLineReserver;
+    private final AvailabilityMirror availabilityMirror;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderWriter orderWriter;
     private final Tracer tracer; // from brave.Tracer
+    private final MeterRegistry meterRegistry;
 
+    // Upper end of MySQL's DATETIME range
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
+    @Value("${order.query.default-limit:50}")
+    private int defaultLimit;
+
+    @Value("${order.query.max-limit:500}")
+    private int maxLimit;
+
+    @Value("${order.pipeline.threads:16}")
+    private int pipelineThreads;
+
+    @Value("${order.pipeline.capacity:1000}")
+    private int pipelineCapacity;
+
+    @Value("${order.pending.resume-after:5m}")
+    private Duration resumeAfter;
+
+    @Value("${order.pending.resume-batch-size:100}")
+    private int resumeBatchSize;
+
+    @Value("${order.pending.max-resume-attempts:10}")
+    private int maxResumeAttempts;
+
+    @Value("${order.limit.enabled:true}")
+    private boolean limitEnabled;
+
+    @Value("${order.limit.initial:20}")
+    private int initialConcurrency;
+
+    @Value("${order.limit.min:4}")
+    private int minConcurrency;
+
+    @Value("${order.limit.max:200}")
+    private int maxConcurrency;
+
+    @Value("${order.limit.tolerance:1.5}")
+    private double limitTolerance;
+
+    @Value("${order.limit.smoothing:0.2}")
+    private double limitSmoothing;
+
+    @Value("${order.limit.backoff-ratio:0.9}")
+    private double limitBackoffRatio;
+
+    // Orders placed synchronously at once, adapted to the latency of placing them
+    private GradientConcurrencyLimiter placeLimiter;
+    private Counter shed;
+
+    private ExecutorService pipeline;
+    // One permit per order accepted but not processed yet
+    private Semaphore pipelineSlots;
+    // Orders being processed by this instance, never resumed meanwhile
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void startPipeline() {
+        pipeline = Executors.newFixedThreadPool(pipelineThreads, Thread.ofPlatform().name("order-pipeline-", 0).factory());
+        pipelineSlots = new Semaphore(pipelineCapacity);
+        Gauge.builder("orders.pipeline.pending", pipelineSlots, slots -> pipelineCapacity - slots.availablePermits())
+                .description("Orders accepted asynchronously and not processed yet")
+                .register(meterRegistry);
+
+        placeLimiter = new GradientConcurrencyLimiter(initialConcurrency, minConcurrency, maxConcurrency,
+                limitTolerance, limitSmoothing, limitBackoffRatio);
+        Gauge.builder("orders.limit", placeLimiter, GradientConcurrencyLimiter::getLimit)
+                .description("Orders that may be placed at once before new ones are shed")
+                .register(meterRegistry);
+        Gauge.builder("orders.limit.inflight", placeLimiter, GradientConcurrencyLimiter::getInFlight)
+                .description("Orders being placed")
+                .register(meterRegistry);
+        shed = Counter.builder("orders.limit.shed")
+                .description("Orders refused with 503 because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stopPipeline() throws InterruptedException {
+        pipeline.shutdown();
+        if (!pipeline.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Order pipeline stopped with orders still in flight, they stay PENDING until resumed");
+        }
+    }
+
+    /**
+     * Saves the order, reserves the stock and saves the order again with its
+     * OrderPlacedEvent before returning.
+     * @throws InvalidOrderRequestException if the customer details are missing
+     * @throws ProductOutOfStockException if there is not enough stock
+     * @throws OrderServiceOverloadedException if too many orders are being placed
+     */
     public void placeOrder(OrderRequest orderRequest){
-        var isProductInStock = inventoryClient.isInStock(orderRequest.skuCode(), orderRequest.quantity());
-
-        if (!isProductInStock) {
-            throw new ProductOutOfStockException(orderRequest.skuCode());
-        } else {
-            Order order = new Order();
-            order.setOrderNumber(UUID.randomUUID().toString());
-            order.setPrice(orderRequest.price());
-            order.setSkuCode(orderRequest.skuCode());
-            order.setQuantity(orderRequest.quantity());
-            orderRepository.save(order);
-
-            OrderPlacedEvent orderPlacedEvent = new OrderPlacedEvent();
-            orderPlacedEvent.setOrderNumber(order.getOrderNumber());
-            orderPlacedEvent.setEmail(orderRequest.userDetails().email());
-            orderPlacedEvent.setFirstName(orderRequest.userDetails().firstName());
-            orderPlacedEvent.setLastName(orderRequest.userDetails().lastName());
-
-            //  Create Kafka record with B3 tracing header
-            ProducerRecord<String, OrderPlacedEvent> record =
-                    new ProducerRecord<>("order-placed", orderPlacedEvent);
-
-            var span = tracer.currentSpan();
-            if (span != null) {
-                String traceId = span.context().traceIdString(); // Brave-specific
-                String spanId = span.context().spanIdString();
-                String b3Header = traceId + "-" + spanId;
-
-                record.headers().add(new RecordHeader("b3", b3Header.getBytes(StandardCharsets.UTF_8)));
-                log.info("Injected B3 header: {}", b3Header);
+        validate(orderRequest);
+        // Before the limiter, so instant rejections neither take a permit nor skew its latency
+        Optional<String> outOfStock = availabilityMirror.findOutOfStock(orderRequest.effectiveLines());
+        if (outOfStock.isPresent()) {
+            throw new ProductOutOfStockException(outOfStock.get());
+        }
+        if (!limitEnabled) {
+            reserveAndSave(orderRequest);
+            return;
+        }
+        GradientConcurrencyLimiter.Permit permit = placeLimiter.tryAcquire();
+        if (permit == null) {
+            shed.increment();
+            throw new OrderServiceOverloadedException("Too many orders being placed, retry later.");
+        }
+        boolean succeeded = false;
+        try {
+            reserveAndSave(orderRequest);
+            succeeded = true;
+        } catch (ProductOutOfStockException e) {
+            // A normal answer, its latency counts like any other
+            succeeded = true;
+            throw e;
+        } finally {
+            permit.release(succeeded);
+        }
+    }
+
+    private void reserveAndSave(OrderRequest orderRequest) {
+        Order order = newOrder(orderNumberGenerator.next().toString(), orderRequest);
+        order.setStatus(OrderStatus.PENDING);
+        orderWriter.save(order, null);
+        inFlight.add(order.getOrderNumber());
+        try {
+            fulfil(order);
+        } catch (ProductOutOfStockException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            handleFailure(order, e);
+            throw e;
+        } finally {
+            inFlight.remove(order.getOrderNumber());
+        }
+        if (order.getStatus() == OrderStatus.FAILED) {
+            throw new IllegalStateException(order.getFailureReason());
+        }
+    }
+
+    /**
+     * Saves the order as PENDING and hands it to the pipeline, which reserves
+     * the stock and saves the event in the background.
+     * @return the order number to poll the status with
+     * @throws InvalidOrderRequestException if the customer details are missing
+     * @throws OrderServiceOverloadedException if the pipeline is full
+     */
+    public String acceptOrder(OrderRequest orderRequest) {
+        validate(orderRequest);
+        if (!pipelineSlots.tryAcquire()) {
+            throw new OrderServiceOverloadedException();
+        }
+        try {
+            String orderNumber = orderNumberGenerator.next().toString();
+            Order order = newOrder(orderNumber, orderRequest);
+            order.setStatus(OrderStatus.PENDING);
+            orderWriter.save(order, null);
+            submit(order);
+            log.info("Order {} accepted for processing", orderNumber);
+            return orderNumber;
+        } catch (RuntimeException e) {
+            pipelineSlots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands PENDING orders nobody has touched for {@code order.pending.resume-after}
+     * back to the pipeline: orders of an instance that stopped, and orders whose
+     * processing failed without a known outcome. Resuming is safe since every
+     * stock call is idempotent per order and line, and committing is too. An
+     * order still PENDING after {@code order.pending.max-resume-attempts} is
+     * failed.
+     */
+    @Scheduled(fixedDelayString = "${order.pending.resume-interval:1m}")
+    public void resumeStalledOrders() {
+        Instant before = Instant.now().minus(resumeAfter);
+        for (String orderNumber : orderRepository.findStalled(OrderStatus.PENDING, before, Limit.of(resumeBatchSize))) {
+            if (inFlight.contains(orderNumber)) {
+                continue;
+            }
+            // Full pipeline: the rest is found again by a later run
+            if (!pipelineSlots.tryAcquire()) {
+                return;
             }
+            try {
+                if (orderRepository.claimStalled(orderNumber, OrderStatus.PENDING, before, Instant.now()) == 0) {
+                    pipelineSlots.release();
+                    continue;
+                }
+                Order order = orderRepository.findWithLinesByOrderNumber(orderNumber).orElseThrow();
+                if (order.getResumeAttempts() > maxResumeAttempts) {
+                    log.error("Order {} still PENDING after {} attempts to resume it, failing it", orderNumber, maxResumeAttempts);
+                    fail(order, "Not processed after " + maxResumeAttempts + " attempts");
+                    pipelineSlots.release();
+                    continue;
+                }
+                log.info("Resuming order {}, attempt {}", orderNumber, order.getResumeAttempts());
+                submit(order);
+            } catch (RuntimeException e) {
+                pipelineSlots.release();
+                log.error("Cannot resume order {}", orderNumber, e);
+            }
+        }
+    }
 
-            log.info("Start - Sending OrderPlacedEvent {} to Kafka topic order-placed", orderPlacedEvent);
-            kafkaTemplate.send(record);
-            log.info("End - Sending OrderPlacedEvent {} to Kafka topic order-placed", orderPlacedEvent);
+    // Called holding a pipeline slot, which the pipeline gives back
+    private void submit(Order order) {
+        var span = tracer.currentSpan();
+        inFlight.add(order.getOrderNumber());
+        try {
+            pipeline.execute(() -> {
+                try (var scope = tracer.withSpanInScope(span)) {
+                    processOrder(order);
+                } finally {
+                    inFlight.remove(order.getOrderNumber());
+                    pipelineSlots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(order.getOrderNumber());
+            throw e;
         }
     }
+
+    public OrderStatusResponse getStatus(String orderNumber) {
+        if (!OrderNumberConverter.isValid(orderNumber)) {
+            throw new OrderNotFoundException(orderNumber);
+        }
+        Order order = orderRepository.findByOrderNumber(orderNumber)
+                .orElseThrow(() -> new OrderNotFoundException(orderNumber));
+        return new OrderStatusResponse(order.getOrderNumber(), order.getStatus(), order.getFailureReason());
+    }
+
+    public OrderResponse getOrder(String orderNumber) {
+        if (!OrderNumberConverter.isValid(orderNumber)) {
+            throw new OrderNotFoundException(orderNumber);
+        }
+        Order order = orderRepository.findWithLinesByOrderNumber(orderNumber)
+                .orElseThrow(() -> new OrderNotFoundException(orderNumber));
+        List<OrderResponse.Line> lines = order.getLines().stream()
+                .map(line -> new OrderResponse.Line(line.getLineNumber(), line.getSkuCode(), line.getPrice(), line.getQuantity()))
+                .toList();
+        return new OrderResponse(order.getOrderNumber(), order.getStatus(), order.getFailureReason(),
+                order.getPrice(), order.getQuantity(), order.getCreatedAt(), lines);
+    }
+
+    /**
+     * Lists the orders created in [from, to), optionally only those with a line
+     * of the SKU, oldest first. Pages are read with a keyset cursor rather than
+     * an offset, so every page is one index range scan however deep it is.
+     * @param after the {@code next} cursor of the previous page, or null for the first page
+     * @throws InvalidOrderQueryException if the cursor or the range is invalid
+     */
+    public OrderPage listOrders(String skuCode, Instant from, Instant to, String after, Integer limit) {
+        Instant start = from == null ? Instant.EPOCH : from;
+        Instant end = to == null ? END_OF_TIME : to;
+        if (!start.isBefore(end)) {
+            throw new InvalidOrderQueryException("'from' must be before 'to'");
+        }
+        int pageSize = limit == null ? defaultLimit : Math.clamp(limit, 1, maxLimit);
+        OrderCursor cursor = after == null ? null : OrderCursor.decode(after);
+        if (cursor == null || cursor.createdAt().isBefore(start)) {
+            // Ids start at 1, so this is created_at >= start
+            cursor = new OrderCursor(start, 0);
+        }
+
+        List<Order> rows = skuCode == null || skuCode.isBlank()
+                ? orderRepository.findPage(cursor.createdAt(), cursor.id(), end, pageSize)
+                : orderRepository.findPageBySkuCode(skuCode, cursor.createdAt(), cursor.id(), end, pageSize);
+        // Orders with several lines of the SKU come back once per line
+        List<OrderSummary> orders = new LinkedHashSet<>(rows).stream()
+                .map(order -> new OrderSummary(order.getOrderNumber(), order.getStatus(), order.getSkuCode(),
+                        order.getPrice(), order.getQuantity(), order.getCreatedAt()))
+                .toList();
+        String next = rows.size() < pageSize ? null
+                : new OrderCursor(rows.getLast().getCreatedAt(), rows.getLast().getId()).encode();
+        return new OrderPage(orders, next);
+    }
+
+    private void processOrder(Order order) {
+        try {
+            Optional<String> outOfStock = availabilityMirror.findOutOfStock(linesOf(order));
+            if (outOfStock.isPresent()) {
+                throw reject(order, outOfStock.get());
+            }
+            fulfil(order);
+        } catch (ProductOutOfStockException e) {
+            // Saved as REJECTED
+        } catch (RuntimeException e) {
+            handleFailure(order, e);
+        }
+    }
+
+    // A failure that may pass leaves the order PENDING to be resumed, since the stock
+    // may be committed already; any other failure would only repeat, so it fails the order
+    private void handleFailure(Order order, RuntimeException e) {
+        if (isTransient(e)) {
+            log.error("Processing order {} failed, it stays PENDING until resumed", order.getOrderNumber(), e);
+            return;
+        }
+        log.error("Processing order {} failed", order.getOrderNumber(), e);
+        try {
+            fail(order, e.getMessage());
+        } catch (RuntimeException saveFailure) {
+            log.error("Cannot save order {} as FAILED, it stays PENDING until resumed", order.getOrderNumber(), saveFailure);
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof ResourceAccessException || e instanceof HttpServerErrorException
+                || e instanceof CallNotPermittedException || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException;
+    }
+
+    private void fail(Order order, String reason) {
+        order.setStatus(OrderStatus.FAILED);
+        order.setFailureReason(reason);
+        orderWriter.save(order, null);
+    }
+
+    // The OrderPlacedEvent is addressed to the customer
+    private static void validate(OrderRequest orderRequest) {
+        OrderRequest.UserDetails userDetails = orderRequest.userDetails();
+        if (userDetails == null || isBlank(userDetails.email()) || isBlank(userDetails.firstName())
+                || isBlank(userDetails.lastName())) {
+            throw new InvalidOrderRequestException("userDetails with email, firstName and lastName are required");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Reserves the stock of a saved PENDING order and saves it as PLACED with
+     * its event, or as FAILED if its holds expired before they were committed.
+     * Stock is only committed once the order is saved, so a crash in between
+     * leaves holds that expire rather than stock taken for nothing.
+     * @throws ProductOutOfStockException once the order is saved as REJECTED
+     * @throws RuntimeException if the outcome is unknown; the order is still PENDING
+     */
+    private void fulfil(Order order) {
+        OrderLineReserver.Reservation reservation = orderLineReserver.reserve(order.getOrderNumber(), linesOf(order));
+        if (reservation.rejected().isPresent()) {
+            throw reject(order, reservation.rejected().get());
+        }
+        if (!orderLineReserver.commit(order.getOrderNumber(), reservation)) {
+            fail(order, "Stock held for the order expired before it was committed");
+            return;
+        }
+        order.setStatus(OrderStatus.PLACED);
+        saveWithEvent(order);
+    }
+
+    // Saves the order as REJECTED
+    private ProductOutOfStockException reject(Order order, String skuCode) {
+        ProductOutOfStockException rejection = new ProductOutOfStockException(skuCode);
+        order.setStatus(OrderStatus.REJECTED);
+        order.setFailureReason(rejection.getMessage());
+        orderWriter.save(order, null);
+        return rejection;
+    }
+
+    // In line number order, as the holds are keyed by line number
+    private static List<OrderRequest.Line> linesOf(Order order) {
+        return order.getLines().stream()
+                .map(line -> new OrderRequest.Line(line.getSkuCode(), line.getPrice(), line.getQuantity()))
+                .toList();
+    }
+
+    private static Order newOrder(String orderNumber, OrderRequest orderRequest) {
+        List<OrderRequest.Line> lines = orderRequest.effectiveLines();
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        // Stored with microseconds, as the listing cursors expect
+        order.setCreatedAt(Instant.now().truncatedTo(ChronoUnit.MICROS));
+        order.setEmail(orderRequest.userDetails().email());
+        order.setFirstName(orderRequest.userDetails().firstName());
+        order.setLastName(orderRequest.userDetails().lastName());
+        BigDecimal price = BigDecimal.ZERO;
+        int quantity = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            OrderRequest.Line line = lines.get(i);
+            order.getLines().add(new OrderLine(null, order, i + 1, line.skuCode(), line.price(), line.quantity(),
+                    order.getCreatedAt()));
+            price = line.price() == null ? price : price.add(line.price());
+            quantity += line.quantity() == null ? 0 : line.quantity();
+        }
+        // The order's own SKU column only describes single-line orders
+        order.setSkuCode(lines.size() == 1 ? lines.getFirst().skuCode() : null);
+        order.setPrice(price);
+        order.setQuantity(quantity);
+        return order;
+    }
+
+    /**
+     * Saves the order and its OrderPlacedEvent in one transaction, possibly
+     * shared with other orders; the {@link OrderOutboxRelay} publishes the event.
+     */
+    private void saveWithEvent(Order order) {
+        OrderOutbox event = new OrderOutbox();
+        event.setOrderNumber(order.getOrderNumber());
+        event.setEmail(order.getEmail());
+        event.setFirstName(order.getFirstName());
+        event.setLastName(order.getLastName());
+        event.setCreatedAt(Instant.now());
+
+        var span = tracer.currentSpan();
+        if (span != null) {
+            String traceId = span.context().traceIdString(); // Brave-specific
+            String spanId = span.context().spanIdString();
+            event.setB3(traceId + "-" + spanId);
+        }
+
+        orderWriter.save(order, event);
+        log.info("Order {} saved with its OrderPlacedEvent", order.getOrderNumber());
+    }
 }
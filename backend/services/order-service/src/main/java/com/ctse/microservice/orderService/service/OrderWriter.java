@@ -0,0 +1,180 @@
+package com.ctse.microservice.orderService.service;
+
+import com.ctse.microservice.orderService.model.Order;
+import com.ctse.microservice.orderService.model.OrderOutbox;
+import com.ctse.microservice.orderService.repository.OrderOutboxRepository;
+import com.ctse.microservice.orderService.repository.OrderRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for orders: concurrent callers queue their order, with its
+ * outbox event if any, and writer threads save whatever has arrived within
+ * {@code order.writer.window} of the first one, up to
+ * {@code order.writer.max-batch-size}, in one transaction of batched inserts.
+ * Callers return once their order is committed. If a group fails, its orders
+ * are retried one transaction each so one bad order does not fail the others.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderWriter {
+    private final OrderRepository orderRepository;
+    private final OrderOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${order.writer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.writer.threads:2}")
+    private int threads;
+
+    @Value("${order.writer.window:2ms}")
+    private Duration window;
+
+    @Value("${order.writer.max-batch-size:100}")
+    private int maxBatchSize;
+
+    private record Write(Order order, OrderOutbox event, boolean newOrder, CompletableFuture<Void> committed) {
+        Write(Order order, OrderOutbox event, CompletableFuture<Void> committed) {
+            this(order, event, order.getId() == null, committed);
+        }
+
+        // A rolled back group leaves the ids it allocated on the entities
+        void forgetIds() {
+            if (newOrder) {
+                order.setId(null);
+                order.getLines().forEach(line -> line.setId(null));
+            }
+            if (event != null) {
+                event.setId(null);
+            }
+        }
+    }
+
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+    private DistributionSummary groupSize;
+
+    @PostConstruct
+    void start() {
+        groupSize = DistributionSummary.builder("orders.writer.group.size")
+                .description("Orders saved per transaction by the group-commit writer")
+                .register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < threads; i++) {
+            writers.add(Thread.ofPlatform().name("order-writer-" + i).daemon().start(this::run));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Saves the order, and the event if not null, and waits for the commit.
+     */
+    public void save(Order order, OrderOutbox event) {
+        if (!enabled) {
+            saveAll(List.of(new Write(order, event, null)));
+            return;
+        }
+        Write write = new Write(order, event, new CompletableFuture<>());
+        queue.add(write);
+        try {
+            write.committed().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime
+                    : new IllegalStateException("Saving order " + order.getOrderNumber() + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while saving order " + order.getOrderNumber(), e);
+        }
+    }
+
+    private void run() {
+        List<Write> group = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Write first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + window.toNanos();
+                queue.drainTo(group, maxBatchSize - group.size());
+                while (group.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Write next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                    queue.drainTo(group, maxBatchSize - group.size());
+                }
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.forEach(write -> write.committed().completeExceptionally(e));
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<Write> group) {
+        groupSize.record(group.size());
+        try {
+            saveAll(group);
+            group.forEach(write -> write.committed().complete(null));
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.getFirst().committed().completeExceptionally(e);
+                return;
+            }
+            log.warn("Saving a group of {} orders failed, saving them one by one", group.size(), e);
+            for (Write write : group) {
+                write.forgetIds();
+                try {
+                    saveAll(List.of(write));
+                    write.committed().complete(null);
+                } catch (RuntimeException single) {
+                    write.committed().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private void saveAll(List<Write> group) {
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.saveAll(group.stream().map(Write::order).toList());
+            outboxRepository.saveAll(group.stream().map(Write::event).filter(Objects::nonNull).toList());
+        });
+    }
+}
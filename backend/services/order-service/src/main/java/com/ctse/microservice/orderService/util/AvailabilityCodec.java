@@ -0,0 +1,139 @@
+package com.ctse.microservice.orderService.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Binary encoding of SKU availability snapshots and deltas.
+ * <pre>
+ * byte    magic 0x41, then kind: 1 = snapshot, 2 = delta
+ * varint  version (snapshot) or from-version and to-version (delta)
+ * varint  number of SKUs
+ * SKU dictionary, sorted by String order and front-coded: per SKU the varint
+ *         length of the prefix shared with the previous SKU, the varint length
+ *         of the rest and the rest in UTF-8
+ * quantity array, one varint per SKU: the quantity in a snapshot, the new
+ *         quantity plus one in a delta, where 0 means the SKU was removed
+ * </pre>
+ * Varints are unsigned LEB128, so most quantities take one or two bytes.
+ * <p>
+ * Copy of the codec inventory-service serves its availability snapshot with;
+ * change both together.
+ */
+public final class AvailabilityCodec {
+    public static final int REMOVED = -1;
+
+    private static final byte MAGIC = 0x41;
+    private static final byte SNAPSHOT = 1;
+    private static final byte DELTA = 2;
+
+    /**
+     * Decoded snapshot or delta. In a snapshot {@code fromVersion} is 0; in a delta
+     * quantities are {@link #REMOVED} for SKUs that no longer exist.
+     */
+    public record Payload(long fromVersion, long version, String[] skuCodes, int[] quantities) {
+        public boolean isDelta() {
+            return fromVersion != 0;
+        }
+    }
+
+    private AvailabilityCodec() {
+    }
+
+    /**
+     * @param skuCodes sorted by {@link String#compareTo}
+     */
+    public static byte[] encodeSnapshot(long version, String[] skuCodes, int[] quantities) {
+        return encode(SNAPSHOT, 0, version, skuCodes, quantities, skuCodes.length);
+    }
+
+    /**
+     * @param skuCodes sorted by {@link String#compareTo}
+     * @param quantities the new quantities, {@link #REMOVED} for removed SKUs
+     */
+    public static byte[] encodeDelta(long fromVersion, long toVersion, String[] skuCodes, int[] quantities, int count) {
+        return encode(DELTA, fromVersion, toVersion, skuCodes, quantities, count);
+    }
+
+    public static Payload decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.get() != MAGIC) {
+            throw new IllegalArgumentException("Not an availability payload");
+        }
+        byte kind = in.get();
+        if (kind != SNAPSHOT && kind != DELTA) {
+            throw new IllegalArgumentException("Unknown availability payload kind " + kind);
+        }
+        long fromVersion = kind == DELTA ? readVarint(in) : 0;
+        long version = readVarint(in);
+        int count = (int) readVarint(in);
+
+        String[] skuCodes = new String[count];
+        byte[] previous = new byte[0];
+        for (int i = 0; i < count; i++) {
+            int shared = (int) readVarint(in);
+            int rest = (int) readVarint(in);
+            byte[] sku = Arrays.copyOf(previous, shared + rest);
+            in.get(sku, shared, rest);
+            skuCodes[i] = new String(sku, StandardCharsets.UTF_8);
+            previous = sku;
+        }
+        int[] quantities = new int[count];
+        for (int i = 0; i < count; i++) {
+            long value = readVarint(in);
+            quantities[i] = kind == DELTA ? (int) value - 1 : (int) value;
+        }
+        return new Payload(fromVersion, version, skuCodes, quantities);
+    }
+
+    private static byte[] encode(byte kind, long fromVersion, long version, String[] skuCodes, int[] quantities, int count) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + count * 8);
+        out.write(MAGIC);
+        out.write(kind);
+        if (kind == DELTA) {
+            writeVarint(out, fromVersion);
+        }
+        writeVarint(out, version);
+        writeVarint(out, count);
+
+        byte[] previous = new byte[0];
+        for (int i = 0; i < count; i++) {
+            byte[] sku = skuCodes[i].getBytes(StandardCharsets.UTF_8);
+            int shared = Arrays.mismatch(previous, sku);
+            if (shared < 0) {
+                shared = sku.length;
+            }
+            writeVarint(out, shared);
+            writeVarint(out, sku.length - shared);
+            out.write(sku, shared, sku.length - shared);
+            previous = sku;
+        }
+        for (int i = 0; i < count; i++) {
+            int quantity = Math.max(quantities[i], kind == DELTA ? REMOVED : 0);
+            writeVarint(out, kind == DELTA ? quantity + 1L : quantity);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,83 @@
+package com.ctse.microservice.orderService.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of the available quantity of every SKU, as sorted arrays
+ * searched by binary search. Applying a delta builds a new table by merging
+ * the changed SKUs in, so readers never see a half-applied update.
+ */
+public final class AvailabilityTable {
+    public static final AvailabilityTable EMPTY = new AvailabilityTable(0, new String[0], new int[0]);
+
+    private final long version;
+    private final String[] skuCodes;
+    private final int[] quantities;
+
+    private AvailabilityTable(long version, String[] skuCodes, int[] quantities) {
+        this.version = version;
+        this.skuCodes = skuCodes;
+        this.quantities = quantities;
+    }
+
+    public static AvailabilityTable of(AvailabilityCodec.Payload snapshot) {
+        if (snapshot.isDelta()) {
+            throw new IllegalArgumentException("Expected a snapshot but got a delta");
+        }
+        return new AvailabilityTable(snapshot.version(), snapshot.skuCodes(), snapshot.quantities());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the delta does not start at this version
+     */
+    public AvailabilityTable apply(AvailabilityCodec.Payload delta) {
+        if (!delta.isDelta() || delta.fromVersion() != version) {
+            throw new IllegalArgumentException("Cannot apply changes since version " + delta.fromVersion()
+                    + " to version " + version);
+        }
+        if (delta.skuCodes().length == 0) {
+            return delta.version() == version ? this : new AvailabilityTable(delta.version(), skuCodes, quantities);
+        }
+
+        String[] changed = delta.skuCodes();
+        int[] changedQuantities = delta.quantities();
+        String[] mergedSkus = new String[skuCodes.length + changed.length];
+        int[] mergedQuantities = new int[mergedSkus.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < skuCodes.length || j < changed.length) {
+            int cmp = i == skuCodes.length ? 1 : j == changed.length ? -1 : skuCodes[i].compareTo(changed[j]);
+            if (cmp < 0) {
+                mergedSkus[n] = skuCodes[i];
+                mergedQuantities[n++] = quantities[i++];
+                continue;
+            }
+            if (cmp == 0) {
+                i++;
+            }
+            if (changedQuantities[j] != AvailabilityCodec.REMOVED) {
+                mergedSkus[n] = changed[j];
+                mergedQuantities[n++] = changedQuantities[j];
+            }
+            j++;
+        }
+        return new AvailabilityTable(delta.version(), Arrays.copyOf(mergedSkus, n), Arrays.copyOf(mergedQuantities, n));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return skuCodes.length;
+    }
+
+    /**
+     * @return the available quantity, or -1 if the SKU is not in the table
+     */
+    public int quantityOf(String skuCode) {
+        int index = Arrays.binarySearch(skuCodes, skuCode);
+        return index < 0 ? -1 : quantities[index];
+    }
+}
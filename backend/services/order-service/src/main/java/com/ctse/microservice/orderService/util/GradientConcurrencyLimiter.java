@@ -0,0 +1,105 @@
+package com.ctse.microservice.orderService.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows the latency of the work it admits, in the
+ * style of TCP Vegas. Every completed call compares its latency with a slow
+ * moving average of past latencies: while calls are as fast as usual the
+ * limit grows by about its square root, once they get slower than
+ * {@code tolerance} times the average the limit shrinks in proportion, and a
+ * failed call cuts it by {@code backoffRatio}. Calls over the limit are
+ * refused straight away instead of queueing.
+ */
+public class GradientConcurrencyLimiter {
+
+    /**
+     * An admitted call; release it exactly once when the call is over.
+     */
+    public final class Permit {
+        private final long startedAt = clock.getAsLong();
+        private final int inFlightAtStart;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * @param succeeded false if the call failed or timed out, which backs the limit off
+         */
+        public void release(boolean succeeded) {
+            inFlight.decrementAndGet();
+            onSample(clock.getAsLong() - startedAt, inFlightAtStart, succeeded);
+        }
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final int averageWindow;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // Guarded by this
+    private double averageLatency;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double smoothing, double backoffRatio) {
+        this(initialLimit, minLimit, maxLimit, tolerance, smoothing, backoffRatio, 600, System::nanoTime);
+    }
+
+    GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                               double backoffRatio, int averageWindow, LongSupplier clock) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.backoffRatio = backoffRatio;
+        this.averageWindow = averageWindow;
+        this.clock = clock;
+    }
+
+    /**
+     * @return a permit, or null if the limit is reached
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long latency, int inFlightAtStart, boolean succeeded) {
+        if (!succeeded) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        averageLatency = averageLatency == 0 ? latency
+                : averageLatency + (latency - averageLatency) / averageWindow;
+        // Only a limit that is actually used says anything about whether it can grow
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.clamp(tolerance * averageLatency / Math.max(latency, 1), 0.5, 1.0);
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.clamp(limit * (1 - smoothing) + target * smoothing, minLimit, maxLimit);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ctse.microservice.orderService.util;
+
+import com.ctse.microservice.orderService.exception.InvalidOrderQueryException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in an order listing: the creation time and id of the last order
+ * returned. Sent to clients as an opaque URL-safe string.
+ */
+public record OrderCursor(Instant createdAt, long id) {
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws InvalidOrderQueryException if the cursor was not made by {@link #encode()}
+     */
+    public static OrderCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split("\\.");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected 3 parts but got " + parts.length);
+            }
+            return new OrderCursor(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                    Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidOrderQueryException("Invalid cursor '" + cursor + "'");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ctse.microservice.orderService.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Stores order numbers, kept as UUID strings in the entities and the API, in a
+ * BINARY(16) column.
+ */
+@Converter
+public class OrderNumberConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String orderNumber) {
+        if (orderNumber == null) {
+            return null;
+        }
+        UUID uuid = UUID.fromString(orderNumber);
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    /**
+     * @return whether the string is an order number that can be stored
+     */
+    public static boolean isValid(String orderNumber) {
+        try {
+            return orderNumber != null && UUID.fromString(orderNumber).toString().equalsIgnoreCase(orderNumber);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
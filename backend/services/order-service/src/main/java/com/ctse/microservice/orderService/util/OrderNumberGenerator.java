@@ -0,0 +1,12 @@
+package com.ctse.microservice.orderService.util;
+
+import java.util.UUID;
+
+/**
+ * Source of order numbers. Order numbers are UUIDs, stored as 16 bytes and
+ * shown in their usual 36 character form.
+ */
+@FunctionalInterface
+public interface OrderNumberGenerator {
+    UUID next();
+}
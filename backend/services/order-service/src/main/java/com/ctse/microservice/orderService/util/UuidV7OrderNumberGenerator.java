@@ -0,0 +1,34 @@
+package com.ctse.microservice.orderService.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDv7 order numbers (RFC 9562): 48 bits of Unix milliseconds, a
+ * 12 bit counter and 62 random bits. New orders land at the right-hand end of
+ * the order number index instead of at random pages, and no coordination
+ * between instances is needed.
+ * <p>
+ * The timestamp and counter advance together with one CAS, so numbers from one
+ * instance are strictly increasing; more than 4096 in one millisecond borrow
+ * from the next millisecond.
+ */
+public class UuidV7OrderNumberGenerator implements OrderNumberGenerator {
+
+    // Unix milliseconds << 12 | counter
+    private final AtomicLong lastTimeAndCounter = new AtomicLong();
+
+    @Override
+    public UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long timeAndCounter = lastTimeAndCounter.updateAndGet(last -> Math.max(last + 1, now));
+
+        long mostSigBits = (timeAndCounter >>> 12) << 16   // unix_ts_ms
+                | 0x7000L                                  // version 7
+                | (timeAndCounter & 0xFFFL);               // rand_a used as counter
+        long leastSigBits = ThreadLocalRandom.current().nextLong() >>> 2
+                | 0x8000_0000_0000_0000L;                  // variant 10
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
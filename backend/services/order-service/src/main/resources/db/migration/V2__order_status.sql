@@ -0,0 +1,7 @@
+-- Orders accepted asynchronously are PENDING until the pipeline has reserved
+-- their stock; existing orders were all placed synchronously
+ALTER TABLE t_orders
+    ADD COLUMN status varchar(16) NOT NULL DEFAULT 'PLACED',
+    ADD COLUMN failure_reason varchar(255) DEFAULT NULL;
+
+CREATE UNIQUE INDEX ux_orders_order_number ON t_orders (order_number);
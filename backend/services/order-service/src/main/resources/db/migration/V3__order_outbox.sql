@@ -0,0 +1,16 @@
+-- OrderPlacedEvents written in the same transaction as their order and
+-- published to Kafka by the outbox relay
+CREATE TABLE `t_order_outbox`
+(
+    id           bigint       NOT NULL AUTO_INCREMENT,
+    order_number varchar(255) NOT NULL,
+    email        varchar(255) NOT NULL,
+    first_name   varchar(255) NOT NULL,
+    last_name    varchar(255) NOT NULL,
+    b3           varchar(128) DEFAULT NULL,
+    created_at   datetime(6)  NOT NULL,
+    sent_at      datetime(6)  DEFAULT NULL,
+    PRIMARY KEY (id),
+    -- Unsent rows in id order for the relay, sent rows by age for the purge
+    KEY ix_order_outbox_sent_at (sent_at, id)
+);
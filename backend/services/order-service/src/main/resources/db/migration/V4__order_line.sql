@@ -0,0 +1,14 @@
+-- Line items of an order; t_orders keeps the SKU and quantity of single-line
+-- orders for existing readers
+CREATE TABLE `t_order_line`
+(
+    id          bigint         NOT NULL AUTO_INCREMENT,
+    order_id    bigint         NOT NULL,
+    line_number int            NOT NULL,
+    sku_code    varchar(255)   NOT NULL,
+    price       decimal(19, 2),
+    quantity    int            NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY ux_order_line_order (order_id, line_number),
+    CONSTRAINT fk_order_line_order FOREIGN KEY (order_id) REFERENCES t_orders (id) ON DELETE CASCADE
+);
@@ -0,0 +1,11 @@
+-- Order numbers are UUIDs; 16 bytes instead of a 36 character string keep the
+-- unique index small, and time-ordered UUIDv7 numbers append to it
+ALTER TABLE t_orders ADD COLUMN order_number_bin binary(16) DEFAULT NULL AFTER id;
+
+UPDATE t_orders SET order_number_bin = UNHEX(REPLACE(order_number, '-', ''))
+WHERE order_number IS NOT NULL;
+
+DROP INDEX ux_orders_order_number ON t_orders;
+ALTER TABLE t_orders DROP COLUMN order_number;
+ALTER TABLE t_orders RENAME COLUMN order_number_bin TO order_number;
+CREATE UNIQUE INDEX ux_orders_order_number ON t_orders (order_number);
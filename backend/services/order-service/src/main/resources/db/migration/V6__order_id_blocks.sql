@@ -0,0 +1,11 @@
+-- Hibernate hands out ids from blocks of 50 reserved in these tables instead of
+-- AUTO_INCREMENT, so inserts can be sent as JDBC batches. next_val is the top of
+-- the next block to hand out, so it starts a full block above the highest id.
+CREATE TABLE `t_orders_seq` (next_val bigint NOT NULL);
+INSERT INTO t_orders_seq SELECT COALESCE(MAX(id), 0) + 50 FROM t_orders;
+
+CREATE TABLE `t_order_line_seq` (next_val bigint NOT NULL);
+INSERT INTO t_order_line_seq SELECT COALESCE(MAX(id), 0) + 50 FROM t_order_line;
+
+CREATE TABLE `t_order_outbox_seq` (next_val bigint NOT NULL);
+INSERT INTO t_order_outbox_seq SELECT COALESCE(MAX(id), 0) + 50 FROM t_order_outbox;
@@ -0,0 +1,19 @@
+-- Orders are listed by creation time, optionally for one SKU, with keyset
+-- cursors on (created_at, id). Orders from before this migration get its time.
+ALTER TABLE t_orders ADD COLUMN created_at datetime(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+CREATE INDEX ix_orders_created_at ON t_orders (created_at, id);
+
+-- Lines carry their order's creation time so the SKU listing is one range scan
+ALTER TABLE t_order_line ADD COLUMN created_at datetime(6) DEFAULT NULL;
+UPDATE t_order_line l JOIN t_orders o ON o.id = l.order_id SET l.created_at = o.created_at;
+
+-- Orders placed before line items existed get their single line
+INSERT INTO t_order_line (order_id, line_number, sku_code, price, quantity, created_at)
+SELECT o.id, 1, o.sku_code, o.price, COALESCE(o.quantity, 0), o.created_at
+FROM t_orders o
+WHERE o.sku_code IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM t_order_line l WHERE l.order_id = o.id);
+UPDATE t_order_line_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM t_order_line));
+
+ALTER TABLE t_order_line MODIFY created_at datetime(6) NOT NULL;
+CREATE INDEX ix_order_line_sku_created_at ON t_order_line (sku_code, created_at, order_id);
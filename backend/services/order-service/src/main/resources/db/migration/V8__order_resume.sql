@@ -0,0 +1,9 @@
+-- PENDING orders left behind by a stopped instance are resumed, which needs the
+-- customer details of their OrderPlacedEvent; orders before this have none
+ALTER TABLE t_orders
+    ADD COLUMN email      varchar(255) DEFAULT NULL,
+    ADD COLUMN first_name varchar(255) DEFAULT NULL,
+    ADD COLUMN last_name  varchar(255) DEFAULT NULL,
+    ADD COLUMN resumed_at datetime(6)  DEFAULT NULL;
+
+CREATE INDEX ix_orders_status_created_at ON t_orders (status, created_at);
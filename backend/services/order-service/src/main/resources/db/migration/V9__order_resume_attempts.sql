@@ -0,0 +1,2 @@
+-- Stalled orders are resumed a bounded number of times, then failed
+ALTER TABLE t_orders ADD COLUMN resume_attempts int NOT NULL DEFAULT 0;
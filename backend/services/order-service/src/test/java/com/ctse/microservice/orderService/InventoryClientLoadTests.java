@@ -0,0 +1,108 @@
+package com.ctse.microservice.orderService;
+
+import com.ctse.microservice.orderService.stubs.InventoryClientStub;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.restassured.RestAssured;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 500 orders placed at once must share the pooled connections to the inventory
+ * service instead of opening one each. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "inventory.client.max-per-route=50")
+@AutoConfigureWireMock(port = 0)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class InventoryClientLoadTests {
+
+	private static final int ORDERS = 500;
+
+	@ServiceConnection
+	static MySQLContainer mySQLContainer = new MySQLContainer("mysql:8.3.0");
+
+	static {
+		mySQLContainer.start();
+	}
+
+	@LocalServerPort
+	private Integer port;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${inventory.client.max-per-route}")
+	private int maxPerRoute;
+
+	@BeforeEach
+	void setup() {
+		RestAssured.baseURI = "http://localhost";
+		RestAssured.port = port;
+	}
+
+	@Test
+	void concurrentOrdersReuseInventoryConnections() throws Exception {
+		InventoryClientStub.stubInventoryCall("iphone_15", 1);
+		String orderJson = """
+                {
+                     "skuCode": "iphone_15",
+                     "price": 1000,
+                     "quantity": 1,
+                     "userDetails": {"email": "load@test.com", "firstName": "Load", "lastName": "Test"}
+                }
+                """;
+
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> statuses = new ArrayList<>(ORDERS);
+		for (int i = 0; i < ORDERS; i++) {
+			statuses.add(executor.submit(() -> {
+				start.await();
+				return RestAssured.given()
+						.contentType("application/json")
+						.body(orderJson)
+						.when()
+						.post("/api/order")
+						.statusCode();
+			}));
+		}
+
+		long startedAt = System.nanoTime();
+		start.countDown();
+		for (Future<Integer> status : statuses) {
+			assertThat(status.get()).isEqualTo(201);
+		}
+		long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+		executor.shutdown();
+
+		double created = meterRegistry.get("inventory.client.connections.created").counter().count();
+		double available = meterRegistry.get("inventory.client.pool.available").gauge().value();
+		log.info("{} orders in {} ms over {} inventory connections, {} kept alive",
+				ORDERS, elapsedMillis, (long) created, (long) available);
+
+		// Requests queue for a pooled connection rather than opening new ones
+		assertThat(created).isLessThanOrEqualTo(maxPerRoute);
+		assertThat(available).isPositive();
+	}
+}
@@ -0,0 +1,122 @@
+package com.ctse.microservice.orderService;
+
+import com.ctse.microservice.orderService.dto.OrderPage;
+import com.ctse.microservice.orderService.dto.OrderSummary;
+import com.ctse.microservice.orderService.repository.OrderRepository;
+import com.ctse.microservice.orderService.service.OrderService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The order listing queries must stay index range scans without a filesort,
+ * whatever page they read.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@AutoConfigureWireMock(port = 0)
+class OrderQueryPlanTests {
+
+	private static final int ORDERS = 1000;
+	private static final int SKUS = 50;
+
+	@ServiceConnection
+	static MySQLContainer mySQLContainer = new MySQLContainer("mysql:8.3.0");
+
+	static {
+		mySQLContainer.start();
+	}
+
+	@BeforeAll
+	static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+		// One order a minute over the last ORDERS minutes, each SKU every SKUS minutes
+		jdbcTemplate.update("""
+				INSERT INTO t_orders (id, order_number, sku_code, price, quantity, status, created_at)
+				WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < ?)
+				SELECT 1000000 + n, UUID_TO_BIN(UUID()), CONCAT('sku_', n % ?), 10, 1, 'PLACED',
+				       UTC_TIMESTAMP(6) - INTERVAL n MINUTE
+				FROM seq""", ORDERS, SKUS);
+		jdbcTemplate.update("""
+				INSERT INTO t_order_line (id, order_id, line_number, sku_code, price, quantity, created_at)
+				SELECT id, id, 1, sku_code, price, quantity, created_at FROM t_orders WHERE id > 1000000""");
+		jdbcTemplate.execute("ANALYZE TABLE t_orders, t_order_line");
+	}
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void pageQueryIsRangeScanOfCreatedAtIndex() {
+		Instant now = Instant.now();
+		Map<String, Object> params = Map.of(
+				"afterCreatedAt", Timestamp.from(now.minus(2, ChronoUnit.HOURS)),
+				"afterId", 1000060,
+				"to", Timestamp.from(now.minus(1, ChronoUnit.HOURS)),
+				"limit", 20);
+
+		List<Map<String, Object>> plan = explain(OrderRepository.PAGE_QUERY, params);
+
+		assertThat(plan).hasSize(1);
+		assertRangeScan(plan.getFirst(), "ix_orders_created_at");
+	}
+
+	@Test
+	void skuPageQueryIsRangeScanOfSkuIndex() {
+		Instant now = Instant.now();
+		Map<String, Object> params = Map.of(
+				"skuCode", "sku_7",
+				"afterCreatedAt", Timestamp.from(now.minus(10, ChronoUnit.HOURS)),
+				"afterId", 1000507,
+				"to", Timestamp.from(now),
+				"limit", 20);
+
+		List<Map<String, Object>> plan = explain(OrderRepository.SKU_PAGE_QUERY, params);
+
+		assertThat(plan).hasSize(2);
+		assertRangeScan(plan.get(0), "ix_order_line_sku_created_at");
+		assertThat(plan.get(1)).containsEntry("type", "eq_ref").containsEntry("key", "PRIMARY");
+	}
+
+	@Test
+	void pagesOfSkuCoverEveryOrderOnce() {
+		List<OrderSummary> orders = new ArrayList<>();
+		String after = null;
+		do {
+			OrderPage page = orderService.listOrders("sku_7", null, null, after, 6);
+			orders.addAll(page.orders());
+			after = page.next();
+		} while (after != null);
+
+		assertThat(orders).hasSize(ORDERS / SKUS);
+		assertThat(orders).extracting(OrderSummary::orderNumber).doesNotHaveDuplicates();
+		assertThat(orders).extracting(OrderSummary::createdAt).isSorted();
+	}
+
+	private List<Map<String, Object>> explain(String query, Map<String, Object> params) {
+		return namedParameterJdbcTemplate.queryForList("EXPLAIN " + query, params);
+	}
+
+	private static void assertRangeScan(Map<String, Object> step, String index) {
+		assertThat(step).containsEntry("type", "range").containsEntry("key", index);
+		assertThat(String.valueOf(step.get("Extra"))).doesNotContain("filesort");
+	}
+}
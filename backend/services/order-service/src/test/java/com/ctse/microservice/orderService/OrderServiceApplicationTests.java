@@ -39,7 +39,12 @@ class OrderServiceApplicationTests {
                 {
                      "skuCode": "iphone_15",
                      "price": 1000,
-                     "quantity": 1
+                     "quantity": 1,
+                     "userDetails": {
+                          "email": "ada@example.com",
+                          "firstName": "Ada",
+                          "lastName": "Lovelace"
+                     }
                 }
                 """;
 		InventoryClientStub.stubInventoryCall("iphone_15", 1);
@@ -64,7 +69,12 @@ class OrderServiceApplicationTests {
                 {
                      "skuCode": "iphone_15",
                      "price": 1000,
-                     "quantity": 1000
+                     "quantity": 1000,
+                     "userDetails": {
+                          "email": "ada@example.com",
+                          "firstName": "Ada",
+                          "lastName": "Lovelace"
+                     }
                 }
                 """;
 		InventoryClientStub.stubInventoryCall("iphone_15", 1000);
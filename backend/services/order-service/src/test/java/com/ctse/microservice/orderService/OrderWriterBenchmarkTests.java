@@ -0,0 +1,114 @@
+package com.ctse.microservice.orderService;
+
+import com.ctse.microservice.orderService.model.Order;
+import com.ctse.microservice.orderService.model.OrderLine;
+import com.ctse.microservice.orderService.model.OrderOutbox;
+import com.ctse.microservice.orderService.model.OrderStatus;
+import com.ctse.microservice.orderService.service.OrderWriter;
+import com.ctse.microservice.orderService.util.OrderNumberGenerator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Orders saved per second by 128 concurrent callers against the group-commit
+ * window. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@AutoConfigureWireMock(port = 0)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class OrderWriterBenchmarkTests {
+
+	private static final int CALLERS = 128;
+	private static final int ORDERS_PER_CALLER = 100;
+
+	@ServiceConnection
+	static MySQLContainer mySQLContainer = new MySQLContainer("mysql:8.3.0");
+
+	static {
+		mySQLContainer.start();
+	}
+
+	@Autowired
+	private OrderWriter orderWriter;
+
+	@Autowired
+	private OrderNumberGenerator orderNumberGenerator;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 2, 5, 10})
+	void ordersPerSecondByWindow(int windowMillis) throws Exception {
+		ReflectionTestUtils.setField(orderWriter, "window", Duration.ofMillis(windowMillis));
+		DistributionSummary groups = meterRegistry.get("orders.writer.group.size").summary();
+		long groupsBefore = groups.count();
+
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int n = 0; n < ORDERS_PER_CALLER; n++) {
+					Order order = newOrder();
+					orderWriter.save(order, newEvent(order));
+				}
+				return null;
+			}));
+		}
+
+		long startedAt = System.nanoTime();
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsedNanos = System.nanoTime() - startedAt;
+		executor.shutdown();
+
+		int orders = CALLERS * ORDERS_PER_CALLER;
+		log.info("window {} ms: {} orders in {} ms ({} orders/s, {} orders per transaction)",
+				windowMillis, orders, elapsedNanos / 1_000_000, (long) (orders / (elapsedNanos / 1e9)),
+				orders / Math.max(1, groups.count() - groupsBefore));
+	}
+
+	private Order newOrder() {
+		Order order = new Order();
+		order.setOrderNumber(orderNumberGenerator.next().toString());
+		order.setSkuCode("iphone_15");
+		order.setPrice(BigDecimal.valueOf(1000));
+		order.setQuantity(1);
+		order.setStatus(OrderStatus.PLACED);
+		order.setCreatedAt(Instant.now().truncatedTo(ChronoUnit.MICROS));
+		order.getLines().add(new OrderLine(null, order, 1, "iphone_15", BigDecimal.valueOf(1000), 1, order.getCreatedAt()));
+		return order;
+	}
+
+	private static OrderOutbox newEvent(Order order) {
+		return new OrderOutbox(null, order.getOrderNumber(), "bench@test.com", "Bench", "Test", null, Instant.now(), null);
+	}
+}
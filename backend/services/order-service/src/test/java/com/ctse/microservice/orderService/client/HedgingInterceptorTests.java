@@ -0,0 +1,86 @@
+package com.ctse.microservice.orderService.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingInterceptorTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final InventoryLatencyTracker latencyTracker = new InventoryLatencyTracker(meterRegistry);
+	private HedgingInterceptor interceptor;
+	private URI hedgedUri;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(latencyTracker, "window", Duration.ofMinutes(1));
+		ReflectionTestUtils.setField(latencyTracker, "minSamples", 100L);
+		ReflectionTestUtils.setField(latencyTracker, "hedgePercentile", 0.95);
+		latencyTracker.register();
+		for (int i = 0; i < 100; i++) {
+			latencyTracker.record(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		latencyTracker.refresh();
+
+		interceptor = new HedgingInterceptor((uri, method) -> {
+			hedgedUri = uri;
+			MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+			request.setResponse(new MockClientHttpResponse("hedge".getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+			return request;
+		}, URI.create("http://inventory-2:8082"), latencyTracker, 1.0, meterRegistry);
+	}
+
+	@Test
+	void slowIdempotentCallIsAnsweredByTheHedge() throws Exception {
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://inventory-1:8082/api/inventory/reserve"));
+		request.getHeaders().add("Idempotency-Key", "order-1");
+
+		ClientHttpResponse response = interceptor.intercept(request, new byte[0], respondingAfter(Duration.ofSeconds(2)));
+
+		assertThat(body(response)).isEqualTo("hedge");
+		assertThat(hedgedUri).isEqualTo(URI.create("http://inventory-2:8082/api/inventory/reserve"));
+		assertThat(meterRegistry.get("inventory.client.hedges.won").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void callWithoutIdempotencyKeyIsNotHedged() throws Exception {
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://inventory-1:8082/api/inventory/holds"));
+
+		ClientHttpResponse response = interceptor.intercept(request, new byte[0], respondingAfter(Duration.ofMillis(200)));
+
+		assertThat(body(response)).isEqualTo("primary");
+		assertThat(hedgedUri).isNull();
+		assertThat(meterRegistry.get("inventory.client.hedges").counter().count()).isZero();
+	}
+
+	private static ClientHttpRequestExecution respondingAfter(Duration delay) {
+		return (request, body) -> {
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new MockClientHttpResponse("primary".getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+		};
+	}
+
+	private static String body(ClientHttpResponse response) throws Exception {
+		return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+	}
+}
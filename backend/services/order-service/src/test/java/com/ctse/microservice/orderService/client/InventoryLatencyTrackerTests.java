@@ -0,0 +1,52 @@
+package com.ctse.microservice.orderService.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryLatencyTrackerTests {
+
+	private final InventoryLatencyTracker latencyTracker = new InventoryLatencyTracker(new SimpleMeterRegistry());
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(latencyTracker, "window", Duration.ofMillis(300));
+		ReflectionTestUtils.setField(latencyTracker, "minSamples", 10L);
+		ReflectionTestUtils.setField(latencyTracker, "hedgePercentile", 0.95);
+		latencyTracker.register();
+		latencyTracker.refresh();
+	}
+
+	@Test
+	void hedgesOnceEnoughCallsAreSeen() {
+		recordCalls(10);
+
+		latencyTracker.refresh();
+
+		assertThat(latencyTracker.hedgeDelay()).isPresent();
+	}
+
+	@Test
+	void callsOlderThanTheWindowDoNotCount() throws InterruptedException {
+		recordCalls(10);
+		latencyTracker.refresh();
+		Thread.sleep(400);
+		recordCalls(2);
+
+		latencyTracker.refresh();
+
+		assertThat(latencyTracker.hedgeDelay()).isEmpty();
+	}
+
+	private void recordCalls(int calls) {
+		for (int i = 0; i < calls; i++) {
+			latencyTracker.record(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package com.ctse.microservice.orderService.service;
+
+import brave.Tracer;
+import com.ctse.microservice.orderService.client.InventoryClient;
+import com.ctse.microservice.orderService.dto.HoldRequest;
+import com.ctse.microservice.orderService.dto.HoldResponse;
+import com.ctse.microservice.orderService.dto.OrderRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderLineReserverTests {
+
+	private static final List<OrderRequest.Line> LINES = List.of(
+			new OrderRequest.Line("iphone_15", BigDecimal.TEN, 1),
+			new OrderRequest.Line("pixel_8", BigDecimal.TEN, 2));
+
+	private final InventoryClient inventoryClient = mock(InventoryClient.class);
+	private final OrderLineReserver reserver = new OrderLineReserver(inventoryClient, mock(Tracer.class));
+
+	{
+		ReflectionTestUtils.setField(reserver, "holdTtl", Duration.ofMinutes(5));
+	}
+
+	@AfterEach
+	void tearDown() {
+		reserver.stop();
+	}
+
+	@Test
+	void timedOutSingleLineIsNotARejection() {
+		when(inventoryClient.reserve(any(), eq("order-1")))
+				.thenThrow(new ResourceAccessException("Read timed out"));
+
+		assertThatThrownBy(() -> reserver.reserve("order-1", LINES.subList(0, 1)))
+				.isInstanceOf(ResourceAccessException.class);
+	}
+
+	@Test
+	void holdsEveryLineUnderItsOwnKey() {
+		HoldResponse iphone = held("iphone_15", 1);
+		HoldResponse pixel = held("pixel_8", 2);
+		when(inventoryClient.placeHold(any(), eq("order-1:1"))).thenReturn(iphone);
+		when(inventoryClient.placeHold(any(), eq("order-1:2"))).thenReturn(pixel);
+
+		OrderLineReserver.Reservation reservation = reserver.reserve("order-1", LINES);
+
+		assertThat(reservation.rejected()).isEmpty();
+		assertThat(reservation.holds()).containsExactlyInAnyOrder(iphone, pixel);
+		verify(inventoryClient, never()).commitHolds(any());
+	}
+
+	@Test
+	void rejectedLineReleasesTheHoldsPlacedWhileItWasInFlight() {
+		HoldResponse iphone = held("iphone_15", 1);
+		CountDownLatch iphoneHeld = new CountDownLatch(1);
+		when(inventoryClient.placeHold(argThat(sku("iphone_15")), any())).thenAnswer(invocation -> {
+			iphoneHeld.countDown();
+			return iphone;
+		});
+		when(inventoryClient.placeHold(argThat(sku("pixel_8")), any())).thenAnswer(invocation -> {
+			iphoneHeld.await(5, TimeUnit.SECONDS);
+			return new HoldResponse(false, null, "pixel_8", 2, null);
+		});
+
+		OrderLineReserver.Reservation reservation = reserver.reserve("order-1", LINES);
+
+		assertThat(reservation.rejected()).contains("pixel_8");
+		assertThat(reservation.holds()).isEmpty();
+		// Released by reserve, or by the line itself if it came back after the rejection
+		verify(inventoryClient, timeout(5000)).releaseHold(iphone.holdId());
+	}
+
+	@Test
+	void holdPlacedAfterTheRejectionReleasesItself() throws Exception {
+		HoldResponse iphone = held("iphone_15", 1);
+		CountDownLatch rejected = new CountDownLatch(1);
+		when(inventoryClient.placeHold(argThat(sku("iphone_15")), any())).thenAnswer(invocation -> {
+			rejected.await(5, TimeUnit.SECONDS);
+			return iphone;
+		});
+		when(inventoryClient.placeHold(argThat(sku("pixel_8")), any()))
+				.thenReturn(new HoldResponse(false, null, "pixel_8", 2, null));
+
+		OrderLineReserver.Reservation reservation = reserver.reserve("order-1", LINES);
+		verify(inventoryClient, never()).releaseHold(any());
+		rejected.countDown();
+
+		assertThat(reservation.rejected()).contains("pixel_8");
+		verify(inventoryClient, timeout(5000)).releaseHold(iphone.holdId());
+	}
+
+	@Test
+	void expiredHoldFailsTheCommitAndReleasesTheOthers() {
+		HoldResponse iphone = held("iphone_15", 1);
+		HoldResponse pixel = held("pixel_8", 2);
+		doThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null))
+				.when(inventoryClient).commitHolds(List.of(iphone.holdId(), pixel.holdId()));
+
+		boolean committed = reserver.commit("order-1", new OrderLineReserver.Reservation(
+				Optional.empty(), List.of(iphone, pixel)));
+
+		assertThat(committed).isFalse();
+		verify(inventoryClient).releaseHold(iphone.holdId());
+		verify(inventoryClient).releaseHold(pixel.holdId());
+	}
+
+	@Test
+	void commitOfUnknownOutcomeKeepsTheHolds() {
+		HoldResponse iphone = held("iphone_15", 1);
+		doThrow(new ResourceAccessException("Read timed out"))
+				.when(inventoryClient).commitHolds(List.of(iphone.holdId()));
+
+		assertThatThrownBy(() -> reserver.commit("order-1", new OrderLineReserver.Reservation(
+				Optional.empty(), List.of(iphone))))
+				.isInstanceOf(ResourceAccessException.class);
+		verify(inventoryClient, never()).releaseHold(any());
+	}
+
+	private static HoldResponse held(String skuCode, int quantity) {
+		return new HoldResponse(true, UUID.randomUUID(), skuCode, quantity, null);
+	}
+
+	private static ArgumentMatcher<HoldRequest> sku(String skuCode) {
+		return request -> request != null && skuCode.equals(request.skuCode());
+	}
+}
@@ -0,0 +1,63 @@
+package com.ctse.microservice.orderService.service;
+
+import com.ctse.microservice.order.event.OrderPlacedEvent;
+import com.ctse.microservice.orderService.model.OrderOutbox;
+import com.ctse.microservice.orderService.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderOutboxRelayTests {
+
+	private final OrderOutboxRepository outboxRepository = mock(OrderOutboxRepository.class);
+	@SuppressWarnings("unchecked")
+	private final KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate = mock(KafkaTemplate.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final OrderOutboxRelay relay = new OrderOutboxRelay(outboxRepository, kafkaTemplate, transactionTemplate,
+			meterRegistry);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(relay, "batchSize", 500);
+		ReflectionTestUtils.setField(relay, "sendTimeout", Duration.ofSeconds(1));
+		relay.registerMetrics();
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	@Test
+	void lagKeepsGrowingWhilePublishingFails() {
+		OrderOutbox oldest = new OrderOutbox(1L, "order-1", "ada@example.com", "Ada", "Lovelace", null,
+				Instant.now().minusSeconds(60), null);
+		when(outboxRepository.lockUnsent(anyInt())).thenReturn(List.of(oldest));
+		when(outboxRepository.findFirstBySentAtIsNullOrderByIdAsc()).thenReturn(Optional.of(oldest));
+		when(kafkaTemplate.send(any(ProducerRecord.class)))
+				.thenReturn(CompletableFuture.failedFuture(new TimeoutException("Broker unavailable")));
+
+		assertThatThrownBy(relay::relay).isInstanceOf(IllegalStateException.class);
+
+		assertThat(meterRegistry.get("orders.outbox.lag").gauge().value()).isGreaterThanOrEqualTo(60);
+		assertThat(meterRegistry.get("orders.outbox.failed-batches").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("orders.outbox.published").counter().count()).isZero();
+	}
+}
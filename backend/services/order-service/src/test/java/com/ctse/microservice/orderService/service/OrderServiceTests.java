@@ -0,0 +1,153 @@
+package com.ctse.microservice.orderService.service;
+
+import brave.Tracer;
+import com.ctse.microservice.orderService.client.InventoryClient;
+import com.ctse.microservice.orderService.dto.OrderRequest;
+import com.ctse.microservice.orderService.dto.ReservationOutcome;
+import com.ctse.microservice.orderService.exception.InvalidOrderRequestException;
+import com.ctse.microservice.orderService.exception.ProductOutOfStockException;
+import com.ctse.microservice.orderService.model.Order;
+import com.ctse.microservice.orderService.model.OrderStatus;
+import com.ctse.microservice.orderService.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTests {
+
+	private static final OrderRequest.UserDetails USER = new OrderRequest.UserDetails("ada@example.com", "Ada", "Lovelace");
+
+	private final InventoryClient inventoryClient = mock(InventoryClient.class);
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+	private final OrderWriter orderWriter = mock(OrderWriter.class);
+	private final Tracer tracer = mock(Tracer.class);
+	private final OrderLineReserver orderLineReserver = new OrderLineReserver(inventoryClient, tracer);
+	private final OrderService orderService = new OrderService(orderRepository, orderLineReserver,
+			mock(AvailabilityMirror.class), UUID::randomUUID, orderWriter, tracer, new SimpleMeterRegistry());
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(orderLineReserver, "holdTtl", Duration.ofMinutes(5));
+		ReflectionTestUtils.setField(orderService, "pipelineThreads", 2);
+		ReflectionTestUtils.setField(orderService, "pipelineCapacity", 10);
+		ReflectionTestUtils.setField(orderService, "initialConcurrency", 20);
+		ReflectionTestUtils.setField(orderService, "minConcurrency", 4);
+		ReflectionTestUtils.setField(orderService, "maxConcurrency", 200);
+		ReflectionTestUtils.setField(orderService, "limitTolerance", 1.5);
+		ReflectionTestUtils.setField(orderService, "limitSmoothing", 0.2);
+		ReflectionTestUtils.setField(orderService, "limitBackoffRatio", 0.9);
+		ReflectionTestUtils.setField(orderService, "resumeAfter", Duration.ofMinutes(5));
+		ReflectionTestUtils.setField(orderService, "resumeBatchSize", 100);
+		ReflectionTestUtils.setField(orderService, "maxResumeAttempts", 10);
+		orderService.startPipeline();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		orderService.stopPipeline();
+		orderLineReserver.stop();
+	}
+
+	@Test
+	void timedOutReservationLeavesThePlacedOrderPending() {
+		when(inventoryClient.reserve(any(), any())).thenThrow(new ResourceAccessException("Read timed out"));
+
+		assertThatThrownBy(() -> orderService.placeOrder(order("iphone_15")))
+				.isInstanceOf(ResourceAccessException.class);
+
+		assertThat(savedOrder().getStatus()).isEqualTo(OrderStatus.PENDING);
+	}
+
+	@Test
+	void timedOutReservationLeavesTheAcceptedOrderPending() throws InterruptedException {
+		when(inventoryClient.reserve(any(), any())).thenThrow(new ResourceAccessException("Read timed out"));
+
+		orderService.acceptOrder(order("iphone_15"));
+		verify(inventoryClient, timeout(5000)).reserve(any(), any());
+		orderService.stopPipeline();
+
+		assertThat(savedOrder().getStatus()).isEqualTo(OrderStatus.PENDING);
+	}
+
+	@Test
+	void unavailableAnswerRejectsTheOrder() {
+		when(inventoryClient.reserve(any(), any())).thenReturn(new ReservationOutcome("iphone_15", 1, false));
+
+		assertThatThrownBy(() -> orderService.placeOrder(order("iphone_15")))
+				.isInstanceOf(ProductOutOfStockException.class);
+
+		assertThat(savedOrder().getStatus()).isEqualTo(OrderStatus.REJECTED);
+	}
+
+	@Test
+	void orderWithoutUserDetailsIsRefused() {
+		OrderRequest request = new OrderRequest(null, null, "iphone_15", BigDecimal.TEN, 1, null, null);
+
+		assertThatThrownBy(() -> orderService.placeOrder(request)).isInstanceOf(InvalidOrderRequestException.class);
+		assertThatThrownBy(() -> orderService.acceptOrder(request)).isInstanceOf(InvalidOrderRequestException.class);
+
+		verify(orderWriter, never()).save(any(), any());
+	}
+
+	@Test
+	void failureThatWouldRepeatFailsTheOrder() {
+		when(inventoryClient.reserve(any(), any()))
+				.thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null));
+
+		assertThatThrownBy(() -> orderService.placeOrder(order("iphone_15")))
+				.isInstanceOf(HttpClientErrorException.class);
+
+		assertThat(savedOrder().getStatus()).isEqualTo(OrderStatus.FAILED);
+	}
+
+	@Test
+	void orderResumedTooOftenIsFailed() {
+		Order stalled = new Order();
+		stalled.setOrderNumber("order-1");
+		stalled.setStatus(OrderStatus.PENDING);
+		stalled.setResumeAttempts(11);
+		when(orderRepository.findStalled(eq(OrderStatus.PENDING), any(), any())).thenReturn(List.of("order-1"));
+		when(orderRepository.claimStalled(eq("order-1"), eq(OrderStatus.PENDING), any(), any())).thenReturn(1);
+		when(orderRepository.findWithLinesByOrderNumber("order-1")).thenReturn(Optional.of(stalled));
+
+		orderService.resumeStalledOrders();
+
+		assertThat(savedOrder().getStatus()).isEqualTo(OrderStatus.FAILED);
+		verify(inventoryClient, never()).reserve(any(), any());
+	}
+
+	private static OrderRequest order(String skuCode) {
+		return new OrderRequest(null, null, skuCode, BigDecimal.TEN, 1, null, USER);
+	}
+
+	// The order object is saved again on every change, so this is its latest state
+	private Order savedOrder() {
+		ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+		verify(orderWriter, atLeastOnce()).save(saved.capture(), isNull());
+		return saved.getValue();
+	}
+}
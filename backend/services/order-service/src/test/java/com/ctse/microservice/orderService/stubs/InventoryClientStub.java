@@ -4,19 +4,14 @@ import static com.github.tomakehurst.wiremock.client.WireMock.*;
 
 public class InventoryClientStub {
     public static void stubInventoryCall(String skuCode, Integer quantity) {
-        if (quantity <= 100) {
-            stubFor(get(urlEqualTo("/api/inventory?skuCode=" + skuCode + "&quantity=" + quantity))
-                    .willReturn(aResponse()
-                            .withStatus(200)
-                            .withHeader("Content-Type", "application/json")
-                            .withBody("true")));
-        } else {
-            stubFor(get(urlEqualTo("/api/inventory?skuCode=" + skuCode + "&quantity=" + quantity))
-                    .willReturn(aResponse()
-                            .withStatus(200)
-                            .withHeader("Content-Type", "application/json")
-                            .withBody("false")));
-        }
+        boolean available = quantity <= 100;
+        stubFor(post(urlEqualTo("/api/inventory/reserve"))
+                .withRequestBody(matchingJsonPath("$.skuCode", equalTo(skuCode)))
+                .withRequestBody(matchingJsonPath("$.quantity", equalTo(String.valueOf(quantity))))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"skuCode\":\"" + skuCode + "\",\"quantity\":" + quantity +
+                                ",\"available\":" + available + "}")));
     }
 }
-
@@ -0,0 +1,42 @@
+package com.ctse.microservice.orderService.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AvailabilityTableTests {
+
+	private final AvailabilityTable table = AvailabilityTable.of(AvailabilityCodec.decode(
+			AvailabilityCodec.encodeSnapshot(100, new String[]{"galaxy_24", "iphone_15", "pixel_8"}, new int[]{5, 0, 12})));
+
+	@Test
+	void looksUpSnapshotQuantities() {
+		assertThat(table.getVersion()).isEqualTo(100);
+		assertThat(table.quantityOf("iphone_15")).isZero();
+		assertThat(table.quantityOf("pixel_8")).isEqualTo(12);
+		assertThat(table.quantityOf("unknown")).isEqualTo(-1);
+	}
+
+	@Test
+	void mergesChangesAdditionsAndRemovals() {
+		AvailabilityTable next = table.apply(AvailabilityCodec.decode(AvailabilityCodec.encodeDelta(100, 103,
+				new String[]{"airpods", "galaxy_24", "iphone_15"}, new int[]{7, AvailabilityCodec.REMOVED, 3}, 3)));
+
+		assertThat(next.getVersion()).isEqualTo(103);
+		assertThat(next.size()).isEqualTo(3);
+		assertThat(next.quantityOf("airpods")).isEqualTo(7);
+		assertThat(next.quantityOf("galaxy_24")).isEqualTo(-1);
+		assertThat(next.quantityOf("iphone_15")).isEqualTo(3);
+		assertThat(next.quantityOf("pixel_8")).isEqualTo(12);
+		assertThat(table.quantityOf("iphone_15")).isZero();
+	}
+
+	@Test
+	void refusesChangesFromAnotherVersion() {
+		byte[] delta = AvailabilityCodec.encodeDelta(99, 101, new String[]{"pixel_8"}, new int[]{1}, 1);
+
+		assertThatThrownBy(() -> table.apply(AvailabilityCodec.decode(delta)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
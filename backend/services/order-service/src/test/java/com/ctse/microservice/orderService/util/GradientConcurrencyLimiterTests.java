@@ -0,0 +1,58 @@
+package com.ctse.microservice.orderService.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimiterTests {
+
+	private final AtomicLong clock = new AtomicLong();
+	private final GradientConcurrencyLimiter limiter =
+			new GradientConcurrencyLimiter(10, 2, 100, 1.5, 0.2, 0.9, 100, clock::get);
+
+	@Test
+	void refusesCallsOverTheLimit() {
+		for (int i = 0; i < 10; i++) {
+			assertThat(limiter.tryAcquire()).isNotNull();
+		}
+
+		assertThat(limiter.tryAcquire()).isNull();
+		assertThat(limiter.getInFlight()).isEqualTo(10);
+	}
+
+	@Test
+	void growsWhileLatencyIsSteadyAndShrinksWhenItRises() {
+		for (int round = 0; round < 5; round++) {
+			runSaturated(10);
+		}
+		int grown = limiter.getLimit();
+		assertThat(grown).isGreaterThan(10);
+
+		runSaturated(100);
+		assertThat(limiter.getLimit()).isLessThan(grown);
+	}
+
+	@Test
+	void backsOffOnFailures() {
+		for (int i = 0; i < 20; i++) {
+			limiter.tryAcquire().release(false);
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+
+	// Fills the limit, then completes every call after the latency
+	private void runSaturated(long latency) {
+		List<GradientConcurrencyLimiter.Permit> permits = new ArrayList<>();
+		GradientConcurrencyLimiter.Permit permit;
+		while ((permit = limiter.tryAcquire()) != null) {
+			permits.add(permit);
+		}
+		clock.addAndGet(latency);
+		permits.forEach(p -> p.release(true));
+	}
+}
@@ -0,0 +1,40 @@
+package com.ctse.microservice.orderService.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7OrderNumberGeneratorTests {
+
+	private final UuidV7OrderNumberGenerator generator = new UuidV7OrderNumberGenerator();
+	private final OrderNumberConverter converter = new OrderNumberConverter();
+
+	@Test
+	void generatesIncreasingVersion7Uuids() {
+		long before = System.currentTimeMillis();
+		UUID previous = generator.next();
+		for (int i = 0; i < 10_000; i++) {
+			UUID next = generator.next();
+			assertThat(next.version()).isEqualTo(7);
+			assertThat(next.variant()).isEqualTo(2);
+			// Byte order of the BINARY(16) column, compared as unsigned
+			assertThat(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits())).isPositive();
+			previous = next;
+		}
+		assertThat(previous.getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before);
+	}
+
+	@Test
+	void storesOrderNumbersInSixteenBytes() {
+		String orderNumber = generator.next().toString();
+
+		byte[] stored = converter.convertToDatabaseColumn(orderNumber);
+
+		assertThat(stored).hasSize(16);
+		assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(orderNumber);
+		assertThat(OrderNumberConverter.isValid(orderNumber)).isTrue();
+		assertThat(OrderNumberConverter.isValid("not-an-order")).isFalse();
+	}
+}